@@ -0,0 +1,359 @@
+package cloud.eppo;
+
+import cloud.eppo.api.Attributes;
+import cloud.eppo.api.BanditActions;
+import java.io.File;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sustained multi-threaded load against {@link EppoClient} while the configuration rotates.
+ *
+ * <p>Run with {@code ./gradlew loadTest}. Settings are read from {@code loadTest.*} system
+ * properties, which the Gradle task forwards from project properties (e.g. {@code
+ * -PloadTest.threads=32}):
+ *
+ * <ul>
+ *   <li>{@code loadTest.threads} - number of workers (default 8)
+ *   <li>{@code loadTest.virtualThreads} - run workers on virtual threads, JDK 21+ (default false)
+ *   <li>{@code loadTest.durationSeconds} - how long to apply load (default 60)
+ *   <li>{@code loadTest.rotationSeconds} - how often the stub server changes configuration
+ *       (default 5)
+ *   <li>{@code loadTest.pollingIntervalMs} - client polling interval (default 500)
+ *   <li>{@code loadTest.flags} - number of synthetic flags of each type (default 50)
+ *   <li>{@code loadTest.subjects} - number of distinct subjects (default 100000)
+ *   <li>{@code loadTest.banditDataDir} - where to find the shared bandit test files (default
+ *       {@code src/test/resources/shared/ufc}, populated by {@code make test-data}); bandit calls
+ *       are skipped when they are absent
+ *   <li>{@code loadTest.swapWindowMs} - events this soon after the stub server rotates the
+ *       configuration are attributed to the rotation (default polling interval + 1000)
+ * </ul>
+ *
+ * <p>Exits with a non-zero status if any call threw or returned an inconsistent result.
+ */
+public class LoadTest {
+  private static final int MAX_LATENCY_SAMPLES = 1 << 22;
+  private static final int MIN_LATENCY_SAMPLES_PER_WORKER = 1 << 12;
+  private static final String BANDIT_FLAG_KEY = "banner_bandit_flag";
+
+  private final int threads = Integer.getInteger("loadTest.threads", 8);
+  private final boolean virtualThreads = Boolean.getBoolean("loadTest.virtualThreads");
+  private final long durationSeconds = Long.getLong("loadTest.durationSeconds", 60);
+  private final long rotationSeconds = Long.getLong("loadTest.rotationSeconds", 5);
+  private final long pollingIntervalMs = Long.getLong("loadTest.pollingIntervalMs", 500);
+  private final int flagCount = Integer.getInteger("loadTest.flags", 50);
+  private final int subjectCount = Integer.getInteger("loadTest.subjects", 100000);
+  private final File banditDataDir =
+      new File(System.getProperty("loadTest.banditDataDir", "src/test/resources/shared/ufc"));
+  // A rotation reaches the client on its next poll, so the default window covers one poll
+  private final long swapWindowNanos =
+      TimeUnit.MILLISECONDS.toNanos(
+          Long.getLong("loadTest.swapWindowMs", pollingIntervalMs + 1000));
+
+  private final Queue<Long> exceptionTimes = new ConcurrentLinkedQueue<>();
+  private final Queue<Long> inconsistencyTimes = new ConcurrentLinkedQueue<>();
+  private final Queue<Long> mixedTimes = new ConcurrentLinkedQueue<>();
+  private final Queue<Throwable> sampleExceptions = new ConcurrentLinkedQueue<>();
+  private final AtomicLong assignmentsLogged = new AtomicLong();
+  private final AtomicLong banditActionsLogged = new AtomicLong();
+
+  private volatile boolean running = true;
+
+  public static void main(String[] args) throws Exception {
+    boolean passed = new LoadTest().run();
+    System.exit(passed ? 0 : 1);
+  }
+
+  private boolean run() throws Exception {
+    StubConfigServer server = new StubConfigServer(flagCount, banditDataDir);
+    server.start(TimeUnit.SECONDS.toMillis(rotationSeconds));
+    try {
+      EppoClient client =
+          EppoClient.builder("load-test-sdk-key")
+              .apiBaseUrl(Constants.appendApiPathToHost(server.getHost()))
+              .assignmentLogger(assignment -> assignmentsLogged.incrementAndGet())
+              .banditLogger(banditAssignment -> banditActionsLogged.incrementAndGet())
+              .pollingIntervalMs(pollingIntervalMs)
+              .forceReinitialize(true)
+              .buildAndInit();
+
+      System.out.printf(
+          "Running %d %s workers for %ds, rotating configuration every %ds%s%n",
+          threads,
+          virtualThreads ? "virtual-thread" : "platform-thread",
+          durationSeconds,
+          rotationSeconds,
+          server.servesBandits() ? "" : " (no bandit test data found; bandit calls skipped)");
+
+      long gcCountBefore = gcCount();
+      long gcTimeBefore = gcTimeMs();
+      long start = System.nanoTime();
+
+      ExecutorService executor = newWorkerExecutor();
+      List<Future<WorkerStats>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit(() -> runWorker(client, server)));
+      }
+      Thread.sleep(TimeUnit.SECONDS.toMillis(durationSeconds));
+      running = false;
+
+      List<WorkerStats> results = new ArrayList<>();
+      for (Future<WorkerStats> future : futures) {
+        results.add(future.get());
+      }
+      long elapsedNanos = System.nanoTime() - start;
+      executor.shutdown();
+      client.stopPolling();
+
+      report(
+          results,
+          server.getRotationTimes(),
+          elapsedNanos,
+          gcCount() - gcCountBefore,
+          gcTimeMs() - gcTimeBefore);
+      return exceptionTimes.isEmpty() && inconsistencyTimes.isEmpty();
+    } finally {
+      server.stop();
+    }
+  }
+
+  private ExecutorService newWorkerExecutor() throws Exception {
+    if (virtualThreads) {
+      // Looked up reflectively so that the harness still compiles for the Java 8 baseline
+      try {
+        return (ExecutorService)
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      } catch (NoSuchMethodException e) {
+        throw new IllegalStateException(
+            "loadTest.virtualThreads requires JDK 21 or later, but this is JDK "
+                + System.getProperty("java.version"));
+      }
+    }
+    return Executors.newFixedThreadPool(threads);
+  }
+
+  private WorkerStats runWorker(EppoClient client, StubConfigServer server) {
+    WorkerStats stats =
+        new WorkerStats(Math.max(MIN_LATENCY_SAMPLES_PER_WORKER, MAX_LATENCY_SAMPLES / threads));
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    com.sun.management.ThreadMXBean threadBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long threadId = Thread.currentThread().getId();
+    long allocatedBefore = threadBean.getThreadAllocatedBytes(threadId);
+    long lastGeneration = 0;
+
+    while (running) {
+      String subjectKey = "subject-" + random.nextInt(subjectCount);
+      int flag = random.nextInt(flagCount);
+      boolean banditCall = server.servesBandits() && random.nextInt(10) == 0;
+      try {
+        // Each assignment call is timed and counted on its own
+        if (banditCall) {
+          Attributes attributes = subjectAttributes(random);
+          long callStart = System.nanoTime();
+          client.getBanditAction(BANDIT_FLAG_KEY, subjectKey, attributes, ACTIONS, "control");
+          stats.record(System.nanoTime() - callStart);
+        } else {
+          String stringFlagKey = StubConfigServer.STRING_FLAG_PREFIX + flag;
+          String integerFlagKey = StubConfigServer.INTEGER_FLAG_PREFIX + flag;
+          long callStart = System.nanoTime();
+          String stringValue = client.getStringAssignment(stringFlagKey, subjectKey, "default");
+          long secondCallStart = System.nanoTime();
+          stats.record(secondCallStart - callStart);
+          int integerValue = client.getIntegerAssignment(integerFlagKey, subjectKey, -1);
+          stats.record(System.nanoTime() - secondCallStart);
+          long maxServed = server.getGeneration();
+
+          long stringGeneration = parseGeneration(stringValue);
+          if (stringGeneration < 0
+              || integerValue < 0
+              || Math.max(stringGeneration, integerValue) > maxServed
+              || Math.min(stringGeneration, integerValue) < lastGeneration) {
+            // A default value, a generation that was never served, or one older than this worker
+            // has already seen
+            inconsistencyTimes.add(System.nanoTime());
+          } else if (stringGeneration != integerValue) {
+            // Two calls in one "request" spanning a configuration change
+            mixedTimes.add(System.nanoTime());
+          }
+          lastGeneration = Math.max(lastGeneration, Math.max(stringGeneration, integerValue));
+        }
+      } catch (Exception e) {
+        exceptionTimes.add(System.nanoTime());
+        if (sampleExceptions.size() < 10) {
+          sampleExceptions.add(e);
+        }
+      }
+    }
+
+    long allocatedAfter = threadBean.getThreadAllocatedBytes(threadId);
+    // Not supported for virtual threads, which report -1
+    if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+      stats.allocatedBytes = allocatedAfter - allocatedBefore;
+    }
+    return stats;
+  }
+
+  private static final BanditActions ACTIONS = new BanditActions();
+
+  static {
+    Attributes nikeAttributes = new Attributes();
+    nikeAttributes.put("brand_affinity", 1.5);
+    nikeAttributes.put("loyalty_tier", "silver");
+    ACTIONS.put("nike", nikeAttributes);
+
+    Attributes adidasAttributes = new Attributes();
+    adidasAttributes.put("brand_affinity", -1.0);
+    adidasAttributes.put("loyalty_tier", "bronze");
+    ACTIONS.put("adidas", adidasAttributes);
+
+    Attributes reebokAttributes = new Attributes();
+    reebokAttributes.put("brand_affinity", 0.5);
+    reebokAttributes.put("loyalty_tier", "gold");
+    ACTIONS.put("reebok", reebokAttributes);
+  }
+
+  private static Attributes subjectAttributes(ThreadLocalRandom random) {
+    Attributes attributes = new Attributes();
+    attributes.put("age", 18 + random.nextInt(60));
+    attributes.put("country", random.nextBoolean() ? "USA" : "Mexico");
+    return attributes;
+  }
+
+  private static long parseGeneration(String value) {
+    if (!value.startsWith(StubConfigServer.GENERATION_PREFIX)) {
+      return -1;
+    }
+    return Long.parseLong(value.substring(StubConfigServer.GENERATION_PREFIX.length()));
+  }
+
+  private void report(
+      List<WorkerStats> results,
+      List<Long> swapTimes,
+      long elapsedNanos,
+      long gcCount,
+      long gcTimeMs) {
+    long calls = 0;
+    long allocatedBytes = 0;
+    boolean allocationKnown = true;
+    List<long[]> samples = new ArrayList<>();
+    for (WorkerStats stats : results) {
+      calls += stats.calls;
+      samples.add(Arrays.copyOf(stats.latencies, stats.sampleCount()));
+      if (stats.allocatedBytes < 0) {
+        allocationKnown = false;
+      } else {
+        allocatedBytes += stats.allocatedBytes;
+      }
+    }
+    long[] latencies = samples.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+    double elapsedSeconds = elapsedNanos / 1e9;
+
+    System.out.println();
+    // Calls that threw are counted under exceptions, not here
+    System.out.printf("Calls:               %d%n", calls);
+    System.out.printf("Throughput:          %.0f calls/s%n", calls / elapsedSeconds);
+    System.out.printf(
+        "Latency (us):        p50=%.1f p99=%.1f p999=%.1f max=%.1f%n",
+        percentile(latencies, 0.50) / 1e3,
+        percentile(latencies, 0.99) / 1e3,
+        percentile(latencies, 0.999) / 1e3,
+        percentile(latencies, 1.0) / 1e3);
+    System.out.printf("GC:                  %d collections, %d ms total%n", gcCount, gcTimeMs);
+    if (allocationKnown && calls > 0) {
+      System.out.printf(
+          "Allocation:          %d MB total, %d bytes/call%n",
+          allocatedBytes >> 20, allocatedBytes / calls);
+    } else {
+      System.out.println("Allocation:          n/a (not measurable on virtual threads)");
+    }
+    System.out.printf(
+        "Assignments logged:  %d (bandit actions: %d)%n",
+        assignmentsLogged.get(), banditActionsLogged.get());
+    System.out.printf("Config rotations:    %d%n", swapTimes.size());
+    reportEvents("Exceptions", exceptionTimes, swapTimes);
+    reportEvents("Inconsistent results", inconsistencyTimes, swapTimes);
+    reportEvents("Mixed-generation reads", mixedTimes, swapTimes);
+    for (Throwable e : sampleExceptions) {
+      e.printStackTrace(System.out);
+    }
+  }
+
+  private void reportEvents(String label, Queue<Long> eventTimes, List<Long> swapTimes) {
+    int nearSwap = 0;
+    for (long eventTime : eventTimes) {
+      for (long swapTime : swapTimes) {
+        if (eventTime >= swapTime && eventTime - swapTime <= swapWindowNanos) {
+          nearSwap++;
+          break;
+        }
+      }
+    }
+    System.out.printf(
+        "%-21s%d (%d within %d ms of a rotation)%n",
+        label + ":", eventTimes.size(), nearSwap, TimeUnit.NANOSECONDS.toMillis(swapWindowNanos));
+  }
+
+  private static double percentile(long[] sorted, double quantile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int index = (int) Math.ceil(quantile * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+  }
+
+  private static long gcCount() {
+    long count = 0;
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      count += Math.max(0, gc.getCollectionCount());
+    }
+    return count;
+  }
+
+  private static long gcTimeMs() {
+    long time = 0;
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      time += Math.max(0, gc.getCollectionTime());
+    }
+    return time;
+  }
+
+  /** Per-worker counters; only touched by the owning worker until it finishes. */
+  private static class WorkerStats {
+    private final long[] latencies;
+    private long calls;
+    private long allocatedBytes = -1;
+
+    WorkerStats(int maxSamples) {
+      this.latencies = new long[maxSamples];
+    }
+
+    void record(long latencyNanos) {
+      if (calls < latencies.length) {
+        latencies[(int) calls] = latencyNanos;
+      } else {
+        // Reservoir sampling keeps the percentiles representative of the whole run
+        long slot = ThreadLocalRandom.current().nextLong(calls + 1);
+        if (slot < latencies.length) {
+          latencies[(int) slot] = latencyNanos;
+        }
+      }
+      calls++;
+    }
+
+    int sampleCount() {
+      return (int) Math.min(calls, latencies.length);
+    }
+  }
+}
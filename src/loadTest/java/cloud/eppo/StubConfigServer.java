@@ -0,0 +1,183 @@
+package cloud.eppo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Local HTTP server standing in for the Eppo configuration API. Every rotation it serves a new
+ * "generation" of synthetic flags whose variation values encode the generation number, so that
+ * callers can tell which configuration produced an assignment.
+ */
+class StubConfigServer {
+  static final String STRING_FLAG_PREFIX = "load-test-string-";
+  static final String INTEGER_FLAG_PREFIX = "load-test-integer-";
+  static final String GENERATION_PREFIX = "generation-";
+
+  private static final ObjectMapper mapper = new ObjectMapper();
+
+  private final HttpServer server;
+  private final ScheduledExecutorService rotator;
+  private final int flagCount;
+  @Nullable private final ObjectNode banditFlags;
+  @Nullable private final byte[] banditModels;
+  private final AtomicLong generation = new AtomicLong();
+  private final List<Long> rotationTimes = new CopyOnWriteArrayList<>();
+  private volatile byte[] flagsResponse;
+
+  /**
+   * @param banditDataDir directory holding the shared {@code bandit-flags-v1.json} and {@code
+   *     bandit-models-v1.json} test files; when it does not contain them, no bandits are served.
+   */
+  StubConfigServer(int flagCount, File banditDataDir) throws IOException {
+    this.flagCount = flagCount;
+    File banditFlagsFile = new File(banditDataDir, "bandit-flags-v1.json");
+    File banditModelsFile = new File(banditDataDir, "bandit-models-v1.json");
+    if (banditFlagsFile.isFile() && banditModelsFile.isFile()) {
+      this.banditFlags = (ObjectNode) mapper.readTree(banditFlagsFile);
+      this.banditModels = mapper.writeValueAsBytes(mapper.readTree(banditModelsFile));
+    } else {
+      this.banditFlags = null;
+      this.banditModels = null;
+    }
+    this.flagsResponse = buildFlagsResponse(0);
+
+    server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.setExecutor(Executors.newFixedThreadPool(2));
+    server.createContext("/", this::handle);
+    rotator =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread thread = new Thread(r, "stub-config-rotator");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  void start(long rotationIntervalMs) {
+    server.start();
+    rotator.scheduleAtFixedRate(
+        this::rotate, rotationIntervalMs, rotationIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  void stop() {
+    rotator.shutdownNow();
+    server.stop(0);
+    ((ExecutorService) server.getExecutor()).shutdownNow();
+  }
+
+  String getHost() {
+    InetSocketAddress address = server.getAddress();
+    return "http://" + address.getHostString() + ":" + address.getPort();
+  }
+
+  boolean servesBandits() {
+    return banditFlags != null;
+  }
+
+  /** The newest generation served so far. */
+  long getGeneration() {
+    return generation.get();
+  }
+
+  /** When each rotation was published, as {@link System#nanoTime()} values. */
+  List<Long> getRotationTimes() {
+    return rotationTimes;
+  }
+
+  private void rotate() {
+    try {
+      long next = generation.get() + 1;
+      byte[] response = buildFlagsResponse(next);
+      // Advance the generation before publishing, so that no caller can see a value that
+      // getGeneration() does not yet cover
+      generation.set(next);
+      flagsResponse = response;
+      rotationTimes.add(System.nanoTime());
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    String path = exchange.getRequestURI().getPath();
+    byte[] body;
+    if (path.endsWith("flag-config/v1/config")) {
+      body = flagsResponse;
+    } else if (path.endsWith("flag-config/v1/bandits") && banditModels != null) {
+      body = banditModels;
+    } else {
+      exchange.sendResponseHeaders(404, -1);
+      exchange.close();
+      return;
+    }
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, body.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  private byte[] buildFlagsResponse(long generation) throws IOException {
+    ObjectNode root = mapper.createObjectNode();
+    root.put("createdAt", "2024-04-17T19:40:53.716Z");
+    root.put("format", "SERVER");
+    root.putObject("environment").put("name", "Load Test");
+    ObjectNode flags = root.putObject("flags");
+
+    String variationKey = GENERATION_PREFIX + generation;
+    for (int i = 0; i < flagCount; i++) {
+      addFlag(flags, STRING_FLAG_PREFIX + i, "STRING", variationKey, variationKey);
+      ObjectNode integerFlag = addFlag(flags, INTEGER_FLAG_PREFIX + i, "INTEGER", variationKey, "");
+      ((ObjectNode) integerFlag.get("variations").get(variationKey)).put("value", generation);
+    }
+
+    if (banditFlags != null) {
+      Iterator<Map.Entry<String, JsonNode>> banditFlagEntries = banditFlags.get("flags").fields();
+      while (banditFlagEntries.hasNext()) {
+        Map.Entry<String, JsonNode> entry = banditFlagEntries.next();
+        flags.set(entry.getKey(), entry.getValue());
+      }
+      root.set("banditReferences", banditFlags.get("banditReferences"));
+    }
+    return mapper.writeValueAsString(root).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static ObjectNode addFlag(
+      ObjectNode flags, String flagKey, String variationType, String variationKey, String value) {
+    ObjectNode flag = flags.putObject(flagKey);
+    flag.put("key", flagKey);
+    flag.put("enabled", true);
+    flag.put("variationType", variationType);
+    flag.put("totalShards", 10000);
+    flag.putObject("variations")
+        .putObject(variationKey)
+        .put("key", variationKey)
+        .put("value", value);
+    ObjectNode allocation = flag.putArray("allocations").addObject();
+    allocation.put("key", "allocation-" + variationKey);
+    allocation.put("doLog", true);
+    ObjectNode split = allocation.putArray("splits").addObject();
+    split.put("variationKey", variationKey);
+    split.putArray("shards");
+    return flag;
+  }
+}
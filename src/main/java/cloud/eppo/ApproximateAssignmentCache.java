@@ -0,0 +1,300 @@
+package cloud.eppo;
+
+import cloud.eppo.api.IAssignmentCache;
+import cloud.eppo.cache.AssignmentCacheEntry;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Assignment cache with a fixed memory footprint for very large subject populations. Instead of
+ * storing every (subject, flag) pair, it records a fingerprint of each (subject, flag, allocation,
+ * variation) assignment in a Bloom filter.
+ *
+ * <p>Two filters are kept: the current one, which receives new entries, and the previous one. Every
+ * window the previous filter is discarded and the current one takes its place, so an assignment is
+ * remembered for between one and two windows and memory never grows with traffic.
+ *
+ * <p>Because the fingerprint includes the variation, a subject whose assignment changes from A to B
+ * and back to A within the retention period is not logged again for A: the fingerprint for A is
+ * still in the filter. The default LRU cache keeps only the latest variation per subject and flag,
+ * so it would log A again.
+ *
+ * <p>The trade-off is that a Bloom filter can report an entry it has never seen. When that happens
+ * the assignment is treated as a duplicate and is not logged, so roughly {@code falsePositiveRate}
+ * of first-time assignments are dropped. {@link #getStatistics()} reports how often entries were
+ * found and the false positive rate currently expected.
+ */
+public class ApproximateAssignmentCache implements IAssignmentCache {
+  private static final double LN_2 = Math.log(2);
+  // Largest array length the JVMs we support will allocate
+  private static final long MAX_WORDS = Integer.MAX_VALUE - 8;
+
+  private final long expectedEntriesPerWindow;
+  private final long numBits;
+  private final int numHashes;
+  private final long windowNanos;
+  private final LongSupplier nanoClock;
+  private final AtomicReference<Generations> generations;
+
+  private final LongAdder lookups = new LongAdder();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder rotations = new LongAdder();
+
+  /**
+   * @param expectedEntriesPerWindow number of distinct assignments expected within one window; the
+   *     filters are sized for this many entries
+   * @param falsePositiveRate target rate at which a new assignment is mistaken for a duplicate,
+   *     between 0 and 1 (exclusive)
+   * @param window how long each filter receives entries before being rotated out
+   */
+  public ApproximateAssignmentCache(
+      long expectedEntriesPerWindow, double falsePositiveRate, long window, TimeUnit unit) {
+    this(expectedEntriesPerWindow, falsePositiveRate, unit.toNanos(window), System::nanoTime);
+  }
+
+  ApproximateAssignmentCache(
+      long expectedEntriesPerWindow,
+      double falsePositiveRate,
+      long windowNanos,
+      LongSupplier nanoClock) {
+    if (expectedEntriesPerWindow <= 0) {
+      throw new IllegalArgumentException("expectedEntriesPerWindow must be positive");
+    }
+    if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+      throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+    }
+    if (windowNanos <= 0) {
+      throw new IllegalArgumentException("window must be positive");
+    }
+    // A lookup consults both filters, so each is sized for half the target rate
+    double perFilterRate = falsePositiveRate / 2;
+    long bits =
+        (long) Math.ceil(-expectedEntriesPerWindow * Math.log(perFilterRate) / (LN_2 * LN_2));
+    if (bits / Long.SIZE + 1 > MAX_WORDS) {
+      throw new IllegalArgumentException(
+          "expectedEntriesPerWindow and falsePositiveRate require too large a filter");
+    }
+    this.expectedEntriesPerWindow = expectedEntriesPerWindow;
+    this.numBits = Math.max(Long.SIZE, bits);
+    this.numHashes =
+        Math.max(1, (int) Math.round((double) numBits / expectedEntriesPerWindow * LN_2));
+    this.windowNanos = windowNanos;
+    this.nanoClock = nanoClock;
+    this.generations =
+        new AtomicReference<>(
+            new Generations(new BloomFilter(numBits), null, nanoClock.getAsLong() + windowNanos));
+  }
+
+  @Override
+  public void put(AssignmentCacheEntry entry) {
+    long fingerprint = fingerprint(entry);
+    currentGenerations().current.add(fingerprint, numHashes);
+  }
+
+  @Override
+  public boolean hasEntry(AssignmentCacheEntry entry) {
+    lookups.increment();
+    long fingerprint = fingerprint(entry);
+    Generations current = currentGenerations();
+    boolean found =
+        current.current.mightContain(fingerprint, numHashes)
+            || (current.previous != null && current.previous.mightContain(fingerprint, numHashes));
+    if (found) {
+      hits.increment();
+    }
+    return found;
+  }
+
+  /** Returns a point-in-time view of the cache's counters and expected accuracy. */
+  public Statistics getStatistics() {
+    Generations current = currentGenerations();
+    double currentRate = current.current.expectedFalsePositiveRate(numHashes);
+    double previousRate =
+        current.previous == null ? 0 : current.previous.expectedFalsePositiveRate(numHashes);
+    return new Statistics(
+        lookups.sum(),
+        hits.sum(),
+        rotations.sum(),
+        current.current.insertions.sum(),
+        expectedEntriesPerWindow,
+        1 - (1 - currentRate) * (1 - previousRate),
+        2L * (numBits / Long.SIZE + 1) * Long.BYTES);
+  }
+
+  private Generations currentGenerations() {
+    Generations current = generations.get();
+    long now = nanoClock.getAsLong();
+    while (now - current.expiresAtNanos >= 0) {
+      // When more than a full window has passed, the current filter is stale as well
+      boolean skipped = now - current.expiresAtNanos >= windowNanos;
+      Generations next =
+          new Generations(
+              new BloomFilter(numBits), skipped ? null : current.current, now + windowNanos);
+      if (generations.compareAndSet(current, next)) {
+        rotations.increment();
+        return next;
+      }
+      current = generations.get();
+    }
+    return current;
+  }
+
+  /** A 64-bit FNV-1a hash of the entry's key and value. */
+  private static long fingerprint(AssignmentCacheEntry entry) {
+    long hash = 0xcbf29ce484222325L;
+    String key = entry.getKeyString();
+    for (int i = 0; i < key.length(); i++) {
+      hash = (hash ^ key.charAt(i)) * 0x100000001b3L;
+    }
+    // Separate key and value so that shifting characters between them changes the fingerprint
+    hash = (hash ^ 0xffff) * 0x100000001b3L;
+    String value = entry.getValueKeyString();
+    for (int i = 0; i < value.length(); i++) {
+      hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+    }
+    return hash;
+  }
+
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  private static final class Generations {
+    private final BloomFilter current;
+    private final BloomFilter previous;
+    private final long expiresAtNanos;
+
+    private Generations(BloomFilter current, BloomFilter previous, long expiresAtNanos) {
+      this.current = current;
+      this.previous = previous;
+      this.expiresAtNanos = expiresAtNanos;
+    }
+  }
+
+  private static final class BloomFilter {
+    private final AtomicLongArray words;
+    private final long numBits;
+    private final LongAdder insertions = new LongAdder();
+
+    private BloomFilter(long numBits) {
+      this.numBits = numBits;
+      this.words = new AtomicLongArray((int) (numBits / Long.SIZE + 1));
+    }
+
+    /**
+     * Sets the fingerprint's bits. The bit positions are {@code h1 + i * h2} for two hashes derived
+     * from the fingerprint by different bijective mixes.
+     */
+    private void add(long fingerprint, int numHashes) {
+      long combined = mix(fingerprint);
+      long step = mix(fingerprint ^ 0x9e3779b97f4a7c15L) | 1;
+      for (int i = 0; i < numHashes; i++) {
+        long bit = (combined & Long.MAX_VALUE) % numBits;
+        long mask = 1L << bit;
+        int index = (int) (bit >>> 6);
+        long word = words.get(index);
+        while ((word & mask) == 0 && !words.compareAndSet(index, word, word | mask)) {
+          word = words.get(index);
+        }
+        combined += step;
+      }
+      insertions.increment();
+    }
+
+    private boolean mightContain(long fingerprint, int numHashes) {
+      long combined = mix(fingerprint);
+      long step = mix(fingerprint ^ 0x9e3779b97f4a7c15L) | 1;
+      for (int i = 0; i < numHashes; i++) {
+        long bit = (combined & Long.MAX_VALUE) % numBits;
+        if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+          return false;
+        }
+        combined += step;
+      }
+      return true;
+    }
+
+    private double expectedFalsePositiveRate(int numHashes) {
+      return Math.pow(1 - Math.exp(-(double) numHashes * insertions.sum() / numBits), numHashes);
+    }
+  }
+
+  /** Counters and accuracy estimates for an {@link ApproximateAssignmentCache}. */
+  public static final class Statistics {
+    private final long lookups;
+    private final long hits;
+    private final long rotations;
+    private final long currentWindowInsertions;
+    private final long expectedEntriesPerWindow;
+    private final double expectedFalsePositiveRate;
+    private final long memoryBytes;
+
+    private Statistics(
+        long lookups,
+        long hits,
+        long rotations,
+        long currentWindowInsertions,
+        long expectedEntriesPerWindow,
+        double expectedFalsePositiveRate,
+        long memoryBytes) {
+      this.lookups = lookups;
+      this.hits = hits;
+      this.rotations = rotations;
+      this.currentWindowInsertions = currentWindowInsertions;
+      this.expectedEntriesPerWindow = expectedEntriesPerWindow;
+      this.expectedFalsePositiveRate = expectedFalsePositiveRate;
+      this.memoryBytes = memoryBytes;
+    }
+
+    /** Number of times the cache was checked for an assignment. */
+    public long getLookups() {
+      return lookups;
+    }
+
+    /**
+     * Number of lookups that found the assignment, and so were not logged. Up to {@link
+     * #getExpectedFalsePositiveRate()} of the lookups for new assignments are counted here too.
+     */
+    public long getHits() {
+      return hits;
+    }
+
+    /** Number of times the filters have been rotated. */
+    public long getRotations() {
+      return rotations;
+    }
+
+    /**
+     * Number of assignments added in the current window. Once this exceeds {@link
+     * #getExpectedEntriesPerWindow()} the false positive rate rises above its target.
+     */
+    public long getCurrentWindowInsertions() {
+      return currentWindowInsertions;
+    }
+
+    public long getExpectedEntriesPerWindow() {
+      return expectedEntriesPerWindow;
+    }
+
+    /**
+     * The probability that an assignment not yet seen is reported as a duplicate, given how full
+     * the filters are now.
+     */
+    public double getExpectedFalsePositiveRate() {
+      return expectedFalsePositiveRate;
+    }
+
+    /** Memory used by the filters' bit arrays. */
+    public long getMemoryBytes() {
+      return memoryBytes;
+    }
+  }
+}
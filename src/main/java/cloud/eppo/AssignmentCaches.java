@@ -0,0 +1,16 @@
+package cloud.eppo;
+
+import cloud.eppo.api.IAssignmentCache;
+import cloud.eppo.cache.LRUInMemoryAssignmentCache;
+
+/**
+ * Creates the default assignment caches. This is the Java 8 implementation; the multi-release JAR
+ * carries a JDK 21 replacement under {@code META-INF/versions/21} (see {@code src/main/java21}).
+ */
+final class AssignmentCaches {
+  private AssignmentCaches() {}
+
+  static IAssignmentCache newLruCache(int maxSize) {
+    return new LRUInMemoryAssignmentCache(maxSize);
+  }
+}
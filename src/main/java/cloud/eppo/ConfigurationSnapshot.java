@@ -0,0 +1,192 @@
+package cloud.eppo;
+
+import cloud.eppo.api.Configuration;
+import cloud.eppo.api.EppoValue;
+import cloud.eppo.ufc.dto.Allocation;
+import cloud.eppo.ufc.dto.FlagConfig;
+import cloud.eppo.ufc.dto.Split;
+import cloud.eppo.ufc.dto.Variation;
+import cloud.eppo.ufc.dto.VariationType;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * An immutable configuration as applied to an {@link EppoClient}, tagged with a version number and
+ * a content fingerprint. The client's getters that take a snapshot evaluate against it even after
+ * a newer configuration has been applied.
+ *
+ * <p>The version starts at zero (before any configuration has been loaded) and increases by one
+ * each time a configuration with different content is applied; polls that return the same
+ * configuration do not change it. It is local to one client, so a cache derived from a
+ * configuration within the same process can compare versions to detect that it is stale.
+ *
+ * <p>The fingerprint is a hash of the flag and bandit configuration content. Unlike the version it
+ * is the same in every process that loaded the same configuration, so it can be used to compare
+ * configurations across JVMs.
+ */
+public final class ConfigurationSnapshot {
+  private final long version;
+  private final long fingerprint;
+  private final Configuration configuration;
+  private final Map<String, StaticAssignment> staticAssignments;
+
+  ConfigurationSnapshot(long version, long fingerprint, @NotNull Configuration configuration) {
+    this.version = version;
+    this.fingerprint = fingerprint;
+    this.configuration = configuration;
+    this.staticAssignments = findStaticAssignments(configuration);
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public long getFingerprint() {
+    return fingerprint;
+  }
+
+  @NotNull public Configuration getConfiguration() {
+    return configuration;
+  }
+
+  /**
+   * Returns the flag's assignment if it is the same for every subject at any time, otherwise null.
+   * Such flags can be answered without running the evaluator.
+   */
+  @Nullable StaticAssignment getStaticAssignment(String flagKey) {
+    return staticAssignments.get(flagKey);
+  }
+
+  private static Map<String, StaticAssignment> findStaticAssignments(Configuration configuration) {
+    if (configuration.isConfigObfuscated()) {
+      // Looking up an obfuscated flag hashes its key, so there is little to gain
+      return Collections.emptyMap();
+    }
+    Map<String, StaticAssignment> assignments = new HashMap<>();
+    for (String flagKey : configuration.getFlagKeys()) {
+      StaticAssignment assignment = StaticAssignment.of(configuration.getFlag(flagKey));
+      if (assignment != null) {
+        assignments.put(flagKey, assignment);
+      }
+    }
+    return assignments;
+  }
+
+  /** Returns the first 64 bits of the SHA-256 hash of the configuration's serialized content. */
+  static long fingerprint(@NotNull Configuration configuration) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      byte[] flagConfig = configuration.serializeFlagConfigToBytes();
+      if (flagConfig != null) {
+        digest.update(flagConfig);
+      }
+      // Separates the two parts so that bytes cannot move from one to the other
+      digest.update((byte) 0);
+      byte[] banditParams = configuration.serializeBanditParamsToBytes();
+      if (banditParams != null) {
+        digest.update(banditParams);
+      }
+      return ByteBuffer.wrap(digest.digest()).getLong();
+    } catch (NoSuchAlgorithmException e) {
+      // Every Java platform is required to support SHA-256
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * The assignment of an enabled flag whose first allocation has no targeting rules, no start or
+   * end date, and a first split without shards. The evaluator would always pick that split, so the
+   * result depends on neither the subject nor the time.
+   */
+  static final class StaticAssignment {
+    private final VariationType variationType;
+    private final String allocationKey;
+    private final String variationKey;
+    private final EppoValue value;
+    private final boolean doLog;
+    private final Map<String, String> extraLogging;
+
+    private StaticAssignment(
+        VariationType variationType,
+        String allocationKey,
+        String variationKey,
+        EppoValue value,
+        boolean doLog,
+        Map<String, String> extraLogging) {
+      this.variationType = variationType;
+      this.allocationKey = allocationKey;
+      this.variationKey = variationKey;
+      this.value = value;
+      this.doLog = doLog;
+      this.extraLogging = extraLogging;
+    }
+
+    @Nullable private static StaticAssignment of(@Nullable FlagConfig flag) {
+      if (flag == null || !flag.isEnabled()) {
+        return null;
+      }
+      List<Allocation> allocations = flag.getAllocations();
+      if (allocations == null || allocations.isEmpty()) {
+        return null;
+      }
+      // Only the first allocation matters: without rules or dates it applies to everyone
+      Allocation allocation = allocations.get(0);
+      if (allocation.getStartAt() != null || allocation.getEndAt() != null) {
+        return null;
+      }
+      if (allocation.getRules() != null && !allocation.getRules().isEmpty()) {
+        return null;
+      }
+      List<Split> splits = allocation.getSplits();
+      if (splits == null || splits.isEmpty()) {
+        return null;
+      }
+      Split split = splits.get(0);
+      if (split.getShards() != null && !split.getShards().isEmpty()) {
+        return null;
+      }
+      Variation variation = flag.getVariations().get(split.getVariationKey());
+      if (variation == null) {
+        return null;
+      }
+      return new StaticAssignment(
+          flag.getVariationType(),
+          allocation.getKey(),
+          variation.getKey(),
+          variation.getValue(),
+          allocation.doLog(),
+          split.getExtraLogging());
+    }
+
+    VariationType getVariationType() {
+      return variationType;
+    }
+
+    String getAllocationKey() {
+      return allocationKey;
+    }
+
+    String getVariationKey() {
+      return variationKey;
+    }
+
+    EppoValue getValue() {
+      return value;
+    }
+
+    boolean doLog() {
+      return doLog;
+    }
+
+    Map<String, String> getExtraLogging() {
+      return extraLogging;
+    }
+  }
+}
@@ -1,11 +1,33 @@
 package cloud.eppo;
 
+import cloud.eppo.api.Actions;
+import cloud.eppo.api.Attributes;
+import cloud.eppo.api.BanditActions;
+import cloud.eppo.api.BanditResult;
 import cloud.eppo.api.Configuration;
+import cloud.eppo.api.DiscriminableAttributes;
+import cloud.eppo.api.EppoValue;
 import cloud.eppo.api.IAssignmentCache;
+import cloud.eppo.cache.AssignmentCacheEntry;
+import cloud.eppo.cache.AssignmentCacheKey;
+import cloud.eppo.cache.BanditCacheValue;
 import cloud.eppo.cache.ExpiringInMemoryAssignmentCache;
-import cloud.eppo.cache.LRUInMemoryAssignmentCache;
+import cloud.eppo.cache.VariationCacheValue;
+import cloud.eppo.logging.Assignment;
 import cloud.eppo.logging.AssignmentLogger;
+import cloud.eppo.logging.BanditAssignment;
 import cloud.eppo.logging.BanditLogger;
+import cloud.eppo.ufc.dto.BanditParameters;
+import cloud.eppo.ufc.dto.FlagConfig;
+import cloud.eppo.ufc.dto.Variation;
+import cloud.eppo.ufc.dto.VariationType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import org.jetbrains.annotations.NotNull;
@@ -27,8 +49,21 @@ public class EppoClient extends BaseEppoClient {
   private static final long DEFAULT_POLLING_INTERVAL_MS = 30 * 1000;
   private static final long DEFAULT_JITTER_INTERVAL_RATIO = 10;
 
+  private static final ObjectMapper objectMapper = new ObjectMapper();
+
   private static EppoClient instance;
 
+  private final String sdkName;
+  private final String sdkVersion;
+  @Nullable private final AssignmentLogger assignmentLogger;
+  @Nullable private final BanditLogger banditLogger;
+  @Nullable private final IAssignmentCache assignmentCache;
+  @Nullable private final IAssignmentCache banditAssignmentCache;
+  // BaseEppoClient keeps its graceful mode flag private, with no getter. EppoClient evaluates
+  // flags itself and needs it, so setIsGracefulFailureMode keeps this copy in step.
+  private volatile boolean isGracefulMode;
+  private volatile ConfigurationSnapshot configurationSnapshot;
+
   public static EppoClient getInstance() {
     if (instance == null) {
       throw new IllegalStateException("Eppo SDK has not been initialized");
@@ -61,6 +96,609 @@ public class EppoClient extends BaseEppoClient {
         null,
         assignmentCache,
         banditAssignmentCache);
+    this.sdkName = sdkName;
+    this.sdkVersion = sdkVersion;
+    this.assignmentLogger = assignmentLogger;
+    this.banditLogger = banditLogger;
+    this.assignmentCache = assignmentCache;
+    this.banditAssignmentCache = banditAssignmentCache;
+    this.isGracefulMode = isGracefulMode;
+    Configuration initialConfiguration = super.getConfiguration();
+    configurationSnapshot =
+        new ConfigurationSnapshot(
+            0, ConfigurationSnapshot.fingerprint(initialConfiguration), initialConfiguration);
+    // Registered before any callback from the builder, so those already see the new snapshot
+    onConfigurationChange(this::onConfigurationApplied);
+  }
+
+  private synchronized void onConfigurationApplied(Configuration configuration) {
+    // Called after every fetch, whether or not the configuration changed
+    long fingerprint = ConfigurationSnapshot.fingerprint(configuration);
+    if (fingerprint != configurationSnapshot.getFingerprint()) {
+      configurationSnapshot =
+          new ConfigurationSnapshot(
+              configurationSnapshot.getVersion() + 1, fingerprint, configuration);
+    }
+  }
+
+  /**
+   * Returns the configuration that assignments are currently evaluated against, along with its
+   * version and fingerprint.
+   *
+   * <p>Every assignment getter, {@code getBanditAction}, {@link #precomputeAssignments} and {@link
+   * #getConfiguration()} read the client's current snapshot, and a newly fetched configuration
+   * becomes visible to all of them at once when the snapshot is replaced. To evaluate several
+   * flags against the same configuration even if a new one arrives part way through, obtain a
+   * snapshot once and pass it to the getters that take one.
+   */
+  @NotNull public ConfigurationSnapshot getConfigurationSnapshot() {
+    return configurationSnapshot;
+  }
+
+  /** Returns the configuration of the current {@link #getConfigurationSnapshot() snapshot}. */
+  @Override
+  public Configuration getConfiguration() {
+    ConfigurationSnapshot snapshot = configurationSnapshot;
+    // Only null while the base class is being constructed
+    return snapshot == null ? super.getConfiguration() : snapshot.getConfiguration();
+  }
+
+  /**
+   * Returns the statistics of the assignment cache when it is an {@link
+   * ApproximateAssignmentCache} (see {@link Builder#approximateAssignmentCache}), otherwise null.
+   */
+  @Nullable public ApproximateAssignmentCache.Statistics getApproximateAssignmentCacheStatistics() {
+    if (assignmentCache instanceof ApproximateAssignmentCache) {
+      return ((ApproximateAssignmentCache) assignmentCache).getStatistics();
+    }
+    return null;
+  }
+
+  @Override
+  public boolean getBooleanAssignment(String flagKey, String subjectKey, boolean defaultValue) {
+    return getBooleanAssignment(configurationSnapshot, flagKey, subjectKey, null, defaultValue);
+  }
+
+  @Override
+  public boolean getBooleanAssignment(
+      String flagKey, String subjectKey, Attributes subjectAttributes, boolean defaultValue) {
+    return getBooleanAssignment(
+        configurationSnapshot, flagKey, subjectKey, subjectAttributes, defaultValue);
+  }
+
+  /**
+   * Evaluates a boolean flag against the given snapshot rather than the current configuration.
+   * The assignment is logged and deduplicated in the same way as by the other getters.
+   */
+  public boolean getBooleanAssignment(
+      ConfigurationSnapshot snapshot,
+      String flagKey,
+      String subjectKey,
+      @Nullable Attributes subjectAttributes,
+      boolean defaultValue) {
+    try {
+      EppoValue value =
+          evaluateAndLog(snapshot, flagKey, subjectKey, subjectAttributes, VariationType.BOOLEAN);
+      return value == null ? defaultValue : value.booleanValue();
+    } catch (Exception e) {
+      return throwIfNotGraceful(e, defaultValue);
+    }
+  }
+
+  @Override
+  public int getIntegerAssignment(String flagKey, String subjectKey, int defaultValue) {
+    return getIntegerAssignment(configurationSnapshot, flagKey, subjectKey, null, defaultValue);
+  }
+
+  @Override
+  public int getIntegerAssignment(
+      String flagKey, String subjectKey, Attributes subjectAttributes, int defaultValue) {
+    return getIntegerAssignment(
+        configurationSnapshot, flagKey, subjectKey, subjectAttributes, defaultValue);
+  }
+
+  /** Evaluates an integer flag against the given snapshot; see {@link #getBooleanAssignment}. */
+  public int getIntegerAssignment(
+      ConfigurationSnapshot snapshot,
+      String flagKey,
+      String subjectKey,
+      @Nullable Attributes subjectAttributes,
+      int defaultValue) {
+    try {
+      EppoValue value =
+          evaluateAndLog(snapshot, flagKey, subjectKey, subjectAttributes, VariationType.INTEGER);
+      return value == null ? defaultValue : (int) value.doubleValue();
+    } catch (Exception e) {
+      return throwIfNotGraceful(e, defaultValue);
+    }
+  }
+
+  @Override
+  public double getDoubleAssignment(String flagKey, String subjectKey, double defaultValue) {
+    return getDoubleAssignment(configurationSnapshot, flagKey, subjectKey, null, defaultValue);
+  }
+
+  @Override
+  public double getDoubleAssignment(
+      String flagKey, String subjectKey, Attributes subjectAttributes, double defaultValue) {
+    return getDoubleAssignment(
+        configurationSnapshot, flagKey, subjectKey, subjectAttributes, defaultValue);
+  }
+
+  /** Evaluates a numeric flag against the given snapshot; see {@link #getBooleanAssignment}. */
+  public double getDoubleAssignment(
+      ConfigurationSnapshot snapshot,
+      String flagKey,
+      String subjectKey,
+      @Nullable Attributes subjectAttributes,
+      double defaultValue) {
+    try {
+      EppoValue value =
+          evaluateAndLog(snapshot, flagKey, subjectKey, subjectAttributes, VariationType.NUMERIC);
+      return value == null ? defaultValue : value.doubleValue();
+    } catch (Exception e) {
+      return throwIfNotGraceful(e, defaultValue);
+    }
+  }
+
+  @Override
+  public String getStringAssignment(String flagKey, String subjectKey, String defaultValue) {
+    return getStringAssignment(configurationSnapshot, flagKey, subjectKey, null, defaultValue);
+  }
+
+  @Override
+  public String getStringAssignment(
+      String flagKey, String subjectKey, Attributes subjectAttributes, String defaultValue) {
+    return getStringAssignment(
+        configurationSnapshot, flagKey, subjectKey, subjectAttributes, defaultValue);
+  }
+
+  /** Evaluates a string flag against the given snapshot; see {@link #getBooleanAssignment}. */
+  public String getStringAssignment(
+      ConfigurationSnapshot snapshot,
+      String flagKey,
+      String subjectKey,
+      @Nullable Attributes subjectAttributes,
+      String defaultValue) {
+    try {
+      EppoValue value =
+          evaluateAndLog(snapshot, flagKey, subjectKey, subjectAttributes, VariationType.STRING);
+      return value == null ? defaultValue : value.stringValue();
+    } catch (Exception e) {
+      return throwIfNotGraceful(e, defaultValue);
+    }
+  }
+
+  @Override
+  public JsonNode getJSONAssignment(String flagKey, String subjectKey, JsonNode defaultValue) {
+    return getJSONAssignment(flagKey, subjectKey, null, defaultValue);
+  }
+
+  @Override
+  public JsonNode getJSONAssignment(
+      String flagKey, String subjectKey, Attributes subjectAttributes, JsonNode defaultValue) {
+    try {
+      EppoValue value =
+          evaluateAndLog(
+              configurationSnapshot, flagKey, subjectKey, subjectAttributes, VariationType.JSON);
+      return value == null ? defaultValue : objectMapper.readTree(value.stringValue());
+    } catch (Exception e) {
+      return throwIfNotGraceful(e, defaultValue);
+    }
+  }
+
+  @Override
+  public String getJSONStringAssignment(String flagKey, String subjectKey, String defaultValue) {
+    return getJSONStringAssignment(configurationSnapshot, flagKey, subjectKey, null, defaultValue);
+  }
+
+  @Override
+  public String getJSONStringAssignment(
+      String flagKey, String subjectKey, Attributes subjectAttributes, String defaultValue) {
+    return getJSONStringAssignment(
+        configurationSnapshot, flagKey, subjectKey, subjectAttributes, defaultValue);
+  }
+
+  /**
+   * Evaluates a JSON flag against the given snapshot, returning the JSON as a string; see {@link
+   * #getBooleanAssignment}.
+   */
+  public String getJSONStringAssignment(
+      ConfigurationSnapshot snapshot,
+      String flagKey,
+      String subjectKey,
+      @Nullable Attributes subjectAttributes,
+      String defaultValue) {
+    try {
+      EppoValue value =
+          evaluateAndLog(snapshot, flagKey, subjectKey, subjectAttributes, VariationType.JSON);
+      return value == null ? defaultValue : value.stringValue();
+    } catch (Exception e) {
+      return throwIfNotGraceful(e, defaultValue);
+    }
+  }
+
+  @Override
+  public BanditResult getBanditAction(
+      String flagKey,
+      String subjectKey,
+      DiscriminableAttributes subjectAttributes,
+      Actions actions,
+      String defaultValue) {
+    return getBanditAction(
+        configurationSnapshot, flagKey, subjectKey, subjectAttributes, actions, defaultValue);
+  }
+
+  /**
+   * Assigns a variation and, when it is a bandit, an action, both from the given snapshot. The
+   * variation and bandit action are logged and deduplicated in the same way as by {@code
+   * getBanditAction}.
+   */
+  public BanditResult getBanditAction(
+      ConfigurationSnapshot snapshot,
+      String flagKey,
+      String subjectKey,
+      DiscriminableAttributes subjectAttributes,
+      Actions actions,
+      String defaultValue) {
+    BanditResult result = new BanditResult(defaultValue, null);
+    try {
+      Configuration configuration = snapshot.getConfiguration();
+      String assignedVariation =
+          getStringAssignment(
+              snapshot, flagKey, subjectKey, subjectAttributes.getAllAttributes(), defaultValue);
+      result = new BanditResult(assignedVariation, null);
+
+      String banditKey = configuration.banditKeyForVariation(flagKey, assignedVariation);
+      if (banditKey != null && !actions.isEmpty()) {
+        BanditParameters banditParameters = configuration.getBanditParameters(banditKey);
+        BanditEvaluationResult banditResult =
+            BanditEvaluator.evaluateBandit(
+                flagKey, subjectKey, subjectAttributes, actions, banditParameters.getModelData());
+        result = new BanditResult(assignedVariation, banditResult.getActionKey());
+        logBanditAssignment(
+            configuration,
+            flagKey,
+            banditKey,
+            subjectKey,
+            subjectAttributes,
+            banditResult,
+            banditParameters.getModelVersion());
+      }
+      return result;
+    } catch (Exception e) {
+      return throwIfNotGraceful(e, result);
+    }
+  }
+
+  @Override
+  public void setIsGracefulFailureMode(boolean isGracefulFailureMode) {
+    super.setIsGracefulFailureMode(isGracefulFailureMode);
+    this.isGracefulMode = isGracefulFailureMode;
+  }
+
+  /**
+   * Evaluates every flag in the current configuration for the subject. The result can be sent as a
+   * compact binary (or JSON) payload to services that serve the subject's assignments without
+   * holding the configuration.
+   *
+   * <p>Nothing is logged while precomputing, since the subject has not been exposed to any of the
+   * assignments yet. The payload includes what is needed for the consumer to log each assignment
+   * when it serves it.
+   */
+  public PrecomputedAssignments precomputeAssignments(
+      String subjectKey, Attributes subjectAttributes) {
+    return precomputeAssignments(subjectKey, subjectAttributes, Collections.emptyMap());
+  }
+
+  /**
+   * Evaluates every flag in the current configuration for the subject, along with bandit actions
+   * for each flag key in {@code banditActions}.
+   */
+  public PrecomputedAssignments precomputeAssignments(
+      String subjectKey, Attributes subjectAttributes, Map<String, BanditActions> banditActions) {
+    // Every flag is evaluated against this one snapshot, so the payload never mixes configurations
+    ConfigurationSnapshot snapshot = configurationSnapshot;
+    Configuration configuration = snapshot.getConfiguration();
+    PrecomputedAssignments.Writer writer =
+        new PrecomputedAssignments.Writer(
+            snapshot.getFingerprint(),
+            snapshot.getVersion(),
+            System.currentTimeMillis(),
+            subjectKey);
+    try {
+      for (String flagKey : configuration.getFlagKeys()) {
+        try {
+          precomputeFlag(
+              writer,
+              configuration,
+              flagKey,
+              subjectKey,
+              subjectAttributes,
+              banditActions.get(flagKey));
+        } catch (RuntimeException e) {
+          if (!isGracefulMode) {
+            throw e;
+          }
+          log.error("Unable to precompute flag {}, omitting it", flagKey, e);
+        }
+      }
+      return PrecomputedAssignments.fromBytes(writer.toBytes());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to encode precomputed assignments", e);
+    }
+  }
+
+  /**
+   * Adds the subject's assignment for one flag to the payload, if there is one. Uses the flag and
+   * bandit evaluators directly rather than the assignment getters so that nothing is logged.
+   */
+  private void precomputeFlag(
+      PrecomputedAssignments.Writer writer,
+      Configuration configuration,
+      String flagKey,
+      String subjectKey,
+      Attributes subjectAttributes,
+      @Nullable BanditActions banditActions)
+      throws IOException {
+    FlagConfig flag = configuration.getFlag(flagKey);
+    if (flag == null || !flag.isEnabled()) {
+      return;
+    }
+    FlagEvaluationResult result =
+        FlagEvaluator.evaluateFlag(
+            flag, flagKey, subjectKey, subjectAttributes, configuration.isConfigObfuscated());
+    Variation variation = result.getVariation();
+    if (variation == null) {
+      return;
+    }
+
+    writer.startFlag(flagKey, result.getAllocationKey(), variation.getKey(), result.doLog());
+    EppoValue value = variation.getValue();
+    switch (flag.getVariationType()) {
+      case BOOLEAN:
+        writer.booleanValue(value.booleanValue());
+        break;
+      case INTEGER:
+        writer.integerValue((int) value.doubleValue());
+        break;
+      case NUMERIC:
+        writer.doubleValue(value.doubleValue());
+        break;
+      case JSON:
+        writer.jsonValue(value.stringValue());
+        break;
+      default:
+        writer.stringValue(value.stringValue());
+    }
+
+    // Only string flags have bandit variations
+    String banditKey =
+        flag.getVariationType() != VariationType.STRING
+                || banditActions == null
+                || banditActions.isEmpty()
+            ? null
+            : configuration.banditKeyForVariation(flagKey, value.stringValue());
+    BanditParameters banditParameters =
+        banditKey == null ? null : configuration.getBanditParameters(banditKey);
+    if (banditParameters == null) {
+      writer.endFlag();
+      return;
+    }
+    BanditEvaluationResult banditResult =
+        BanditEvaluator.evaluateBandit(
+            flagKey, subjectKey, subjectAttributes, banditActions, banditParameters.getModelData());
+    writer.endFlag(
+        banditKey,
+        banditResult.getActionKey(),
+        banditParameters.getModelVersion(),
+        banditResult.getActionWeight(),
+        banditResult.getOptimalityGap());
+  }
+
+  /**
+   * Evaluates the flag against the snapshot and logs the assignment if needed. Returns null when
+   * the default value should be used: the flag is missing, disabled or of another type, or the
+   * subject is not assigned a variation.
+   */
+  @Nullable private EppoValue evaluateAndLog(
+      ConfigurationSnapshot snapshot,
+      String flagKey,
+      String subjectKey,
+      @Nullable Attributes subjectAttributes,
+      VariationType expectedType) {
+    throwIfEmptyOrNull(flagKey, "flagKey must not be empty");
+    throwIfEmptyOrNull(subjectKey, "subjectKey must not be empty");
+
+    Configuration configuration = snapshot.getConfiguration();
+    ConfigurationSnapshot.StaticAssignment staticAssignment = snapshot.getStaticAssignment(flagKey);
+    if (staticAssignment != null
+        && staticAssignment.getVariationType() == expectedType
+        && valueMatchesType(staticAssignment.getValue(), expectedType)) {
+      // The same for every subject, so there is nothing to evaluate. Without an assignment logger
+      // this path does not allocate.
+      if (staticAssignment.doLog()) {
+        logAssignment(
+            configuration,
+            flagKey,
+            subjectKey,
+            subjectAttributes,
+            staticAssignment.getAllocationKey(),
+            staticAssignment.getVariationKey(),
+            staticAssignment.getExtraLogging());
+      }
+      return staticAssignment.getValue();
+    }
+
+    FlagConfig flag = configuration.getFlag(flagKey);
+    if (flag == null) {
+      log.warn("no configuration found for key: {}", flagKey);
+      return null;
+    }
+    if (!flag.isEnabled()) {
+      log.info(
+          "no assigned variation because the experiment or feature flag is disabled: {}", flagKey);
+      return null;
+    }
+    if (flag.getVariationType() != expectedType) {
+      log.warn(
+          "no assigned variation because the flag type doesn't match the requested type: {} has type {}, requested {}",
+          flagKey,
+          flag.getVariationType(),
+          expectedType);
+      return null;
+    }
+
+    Attributes attributes = subjectAttributes == null ? new Attributes() : subjectAttributes;
+    FlagEvaluationResult result =
+        FlagEvaluator.evaluateFlag(
+            flag, flagKey, subjectKey, attributes, configuration.isConfigObfuscated());
+    Variation variation = result.getVariation();
+    if (variation == null) {
+      return null;
+    }
+    EppoValue value = variation.getValue();
+    if (!valueMatchesType(value, expectedType)) {
+      log.warn(
+          "no assigned variation because the flag type doesn't match the variation type: {} has type {}, variation value is {}",
+          flagKey,
+          flag.getVariationType(),
+          value);
+      return null;
+    }
+    if (result.doLog()) {
+      logAssignment(
+          configuration,
+          flagKey,
+          subjectKey,
+          attributes,
+          result.getAllocationKey(),
+          variation.getKey(),
+          result.getExtraLogging());
+    }
+    return value;
+  }
+
+  private static boolean valueMatchesType(EppoValue value, VariationType expectedType) {
+    switch (expectedType) {
+      case BOOLEAN:
+        return value.isBoolean();
+      case INTEGER:
+        return value.isNumeric() && value.doubleValue() == Math.floor(value.doubleValue());
+      case NUMERIC:
+        return value.isNumeric();
+      default:
+        // JSON variations are held as their string form
+        return value.isString();
+    }
+  }
+
+  /**
+   * Logs the assignment unless the assignment cache has already seen it. The cache is checked
+   * before the log event is built, so repeat assignments only allocate the cache entry.
+   */
+  private void logAssignment(
+      Configuration configuration,
+      String flagKey,
+      String subjectKey,
+      @Nullable Attributes subjectAttributes,
+      String allocationKey,
+      String variationKey,
+      Map<String, String> extraLogging) {
+    if (assignmentLogger == null) {
+      return;
+    }
+    AssignmentCacheEntry cacheEntry =
+        new AssignmentCacheEntry(
+            new AssignmentCacheKey(subjectKey, flagKey),
+            new VariationCacheValue(allocationKey, variationKey));
+    if (assignmentCache != null && assignmentCache.hasEntry(cacheEntry)) {
+      return;
+    }
+    Assignment assignment =
+        new Assignment(
+            flagKey + '-' + allocationKey,
+            flagKey,
+            allocationKey,
+            variationKey,
+            subjectKey,
+            subjectAttributes == null ? new Attributes() : subjectAttributes,
+            extraLogging,
+            buildLogMetaData(configuration.isConfigObfuscated()));
+    try {
+      assignmentLogger.logAssignment(assignment);
+    } catch (Exception e) {
+      log.error("Error logging assignment: {}", e.getMessage(), e);
+      return;
+    }
+    if (assignmentCache != null) {
+      assignmentCache.put(cacheEntry);
+    }
+  }
+
+  private void logBanditAssignment(
+      Configuration configuration,
+      String flagKey,
+      String banditKey,
+      String subjectKey,
+      DiscriminableAttributes subjectAttributes,
+      BanditEvaluationResult banditResult,
+      String modelVersion) {
+    if (banditLogger == null) {
+      return;
+    }
+    AssignmentCacheEntry cacheEntry =
+        new AssignmentCacheEntry(
+            new AssignmentCacheKey(subjectKey, flagKey),
+            new BanditCacheValue(banditKey, banditResult.getActionKey()));
+    if (banditAssignmentCache != null && banditAssignmentCache.hasEntry(cacheEntry)) {
+      return;
+    }
+    BanditAssignment banditAssignment =
+        new BanditAssignment(
+            flagKey,
+            banditKey,
+            subjectKey,
+            banditResult.getActionKey(),
+            banditResult.getActionWeight(),
+            banditResult.getOptimalityGap(),
+            modelVersion,
+            subjectAttributes.getNumericAttributes(),
+            subjectAttributes.getCategoricalAttributes(),
+            banditResult.getActionAttributes().getNumericAttributes(),
+            banditResult.getActionAttributes().getCategoricalAttributes(),
+            buildLogMetaData(configuration.isConfigObfuscated()));
+    try {
+      banditLogger.logBanditAssignment(banditAssignment);
+    } catch (Exception e) {
+      log.warn("Error logging bandit assignment: {}", e.getMessage(), e);
+      return;
+    }
+    if (banditAssignmentCache != null) {
+      banditAssignmentCache.put(cacheEntry);
+    }
+  }
+
+  private Map<String, String> buildLogMetaData(boolean isConfigObfuscated) {
+    Map<String, String> metaData = new HashMap<>();
+    metaData.put("obfuscated", Boolean.toString(isConfigObfuscated));
+    metaData.put("sdkLanguage", sdkName);
+    metaData.put("sdkLibVersion", sdkVersion);
+    return metaData;
+  }
+
+  private <T> T throwIfNotGraceful(Exception e, T defaultValue) {
+    if (isGracefulMode) {
+      log.info("error getting assignment value: {}", e.getMessage());
+      return defaultValue;
+    }
+    throw new RuntimeException(e);
+  }
+
+  private static void throwIfEmptyOrNull(String input, String errorMessage) {
+    if (input == null || input.isEmpty()) {
+      throw new IllegalArgumentException(errorMessage);
+    }
   }
 
   /**
@@ -85,7 +723,7 @@ public class EppoClient extends BaseEppoClient {
 
     // Assignment and bandit caching on by default. To disable, call
     // `builder.assignmentCache(null).banditAssignmentCache(null);`
-    private IAssignmentCache assignmentCache = new LRUInMemoryAssignmentCache(100);
+    private IAssignmentCache assignmentCache = AssignmentCaches.newLruCache(100);
     private IAssignmentCache banditAssignmentCache =
         new ExpiringInMemoryAssignmentCache(10, TimeUnit.MINUTES);
 
@@ -154,6 +792,21 @@ public class EppoClient extends BaseEppoClient {
       return this;
     }
 
+    /**
+     * Deduplicates assignment logs with an {@link ApproximateAssignmentCache}, whose memory use is
+     * fixed regardless of how many subjects are seen, in place of the default LRU cache. A small
+     * fraction (about {@code falsePositiveRate}) of first-time assignments will not be logged.
+     *
+     * <p>Use {@link EppoClient#getApproximateAssignmentCacheStatistics()} to monitor that
+     * trade-off.
+     */
+    public Builder approximateAssignmentCache(
+        long expectedEntriesPerWindow, double falsePositiveRate, long window, TimeUnit unit) {
+      this.assignmentCache =
+          new ApproximateAssignmentCache(expectedEntriesPerWindow, falsePositiveRate, window, unit);
+      return this;
+    }
+
     public Builder banditAssignmentCache(IAssignmentCache banditAssignmentCache) {
       this.banditAssignmentCache = banditAssignmentCache;
       return this;
@@ -0,0 +1,547 @@
+package cloud.eppo;
+
+import cloud.eppo.ufc.dto.VariationType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * All of one subject's flag assignments (and, optionally, bandit actions), evaluated ahead of time
+ * by {@link EppoClient#precomputeAssignments}. Services that only need to serve these assignments
+ * can read them from the compact binary form produced by {@link #toBytes()} without holding the
+ * full configuration; {@link #toJson()} is available where a binary payload is inconvenient.
+ *
+ * <p>Precomputing does not log assignments. Each flag carries the allocation key, variation key
+ * and whether the assignment should be logged (and, for bandits, the bandit key, model version,
+ * action probability and optimality gap), so the consumer can log the assignment when it actually
+ * serves it.
+ *
+ * <p>Values are decoded directly from the underlying buffer when requested. Each payload carries
+ * the fingerprint of the configuration it was computed from (see {@link
+ * ConfigurationSnapshot#getFingerprint()}), which is the same in every process that loaded that
+ * configuration, so consumers can tell when it is stale.
+ *
+ * <p>Binary layout (big-endian; strings are a length-prefixed UTF-8 byte sequence):
+ *
+ * <pre>
+ *   int    magic ("EPPA")
+ *   byte   format version
+ *   long   configuration fingerprint
+ *   long   configuration version (local to the process that computed the payload)
+ *   long   created at (epoch milliseconds)
+ *   string subject key
+ *   int    number of flags, then for each flag:
+ *            string flag key
+ *            string allocation key
+ *            string variation key
+ *            byte   1 if the assignment should be logged, otherwise 0
+ *            byte   variation type
+ *            ...    value (byte boolean, int integer, double numeric, or string)
+ *            byte   1 if a bandit action follows, otherwise 0
+ *            string bandit key, bandit action and bandit model version, then
+ *            double action probability and optimality gap (if present)
+ *   int    CRC-32 of all of the above
+ * </pre>
+ */
+public final class PrecomputedAssignments {
+  static final int MAGIC = 0x45505041;
+  static final byte FORMAT_VERSION = 1;
+
+  private static final byte TYPE_BOOLEAN = 1;
+  private static final byte TYPE_INTEGER = 2;
+  private static final byte TYPE_NUMERIC = 3;
+  private static final byte TYPE_STRING = 4;
+  private static final byte TYPE_JSON = 5;
+
+  private static final ObjectMapper mapper = new ObjectMapper();
+
+  private final ByteBuffer buffer;
+  private final long configurationFingerprint;
+  private final long configurationVersion;
+  private final long createdAtMillis;
+  private final String subjectKey;
+  // Flag key to the position of the flag's allocation key
+  private final Map<String, Integer> offsets;
+
+  private PrecomputedAssignments(ByteBuffer buffer) {
+    this.buffer = buffer;
+    if (buffer.remaining() < 4 + 1 + 8 + 8 + 8 + 4 + 4 + 4) {
+      throw new IllegalArgumentException("Precomputed assignments payload is truncated");
+    }
+    int end = buffer.limit() - 4;
+    CRC32 crc = new CRC32();
+    ByteBuffer checked = buffer.duplicate();
+    checked.limit(end);
+    crc.update(checked);
+    if ((int) crc.getValue() != buffer.getInt(end)) {
+      throw new IllegalArgumentException("Precomputed assignments payload is corrupt");
+    }
+
+    int position = buffer.position();
+    if (buffer.getInt(position) != MAGIC) {
+      throw new IllegalArgumentException("Not a precomputed assignments payload");
+    }
+    position += 4;
+    byte formatVersion = buffer.get(position);
+    if (formatVersion != FORMAT_VERSION) {
+      throw new IllegalArgumentException(
+          "Unsupported precomputed assignments format version " + formatVersion);
+    }
+    position += 1;
+    this.configurationFingerprint = buffer.getLong(position);
+    position += 8;
+    this.configurationVersion = buffer.getLong(position);
+    position += 8;
+    this.createdAtMillis = buffer.getLong(position);
+    position += 8;
+    this.subjectKey = readString(position);
+    position = skipString(position);
+
+    int flagCount = buffer.getInt(position);
+    position += 4;
+    Map<String, Integer> offsets = new HashMap<>();
+    for (int i = 0; i < flagCount; i++) {
+      String flagKey = readString(position);
+      position = skipString(position);
+      offsets.put(flagKey, position);
+      position = skipEntry(position);
+    }
+    if (position != end) {
+      throw new IllegalArgumentException("Precomputed assignments payload is malformed");
+    }
+    this.offsets = Collections.unmodifiableMap(offsets);
+  }
+
+  /** Reads a payload produced by {@link #toBytes()}. */
+  public static PrecomputedAssignments fromBytes(@NotNull byte[] bytes) {
+    return fromByteBuffer(ByteBuffer.wrap(bytes));
+  }
+
+  /**
+   * Reads a payload produced by {@link #toBytes()} from the buffer's remaining bytes, without
+   * copying them. The buffer must not be modified while the returned object is in use.
+   */
+  public static PrecomputedAssignments fromByteBuffer(@NotNull ByteBuffer buffer) {
+    return new PrecomputedAssignments(buffer.slice());
+  }
+
+  /** Reads a payload produced by {@link #toJson()}. */
+  public static PrecomputedAssignments fromJson(@NotNull String json) {
+    try {
+      JsonNode root = mapper.readTree(json);
+      int formatVersion = root.path("formatVersion").asInt();
+      if (formatVersion != FORMAT_VERSION) {
+        throw new IllegalArgumentException(
+            "Unsupported precomputed assignments format version " + formatVersion);
+      }
+      Writer writer =
+          new Writer(
+              Long.parseUnsignedLong(root.path("configurationFingerprint").asText(), 16),
+              root.path("configurationVersion").asLong(),
+              root.path("createdAt").asLong(),
+              root.path("subjectKey").asText());
+      Iterator<Map.Entry<String, JsonNode>> flags = root.path("flags").fields();
+      while (flags.hasNext()) {
+        Map.Entry<String, JsonNode> entry = flags.next();
+        JsonNode flag = entry.getValue();
+        JsonNode value = flag.path("value");
+        writer.startFlag(
+            entry.getKey(),
+            flag.path("allocationKey").asText(),
+            flag.path("variationKey").asText(),
+            flag.path("doLog").asBoolean());
+        switch (VariationType.valueOf(flag.path("variationType").asText())) {
+          case BOOLEAN:
+            writer.booleanValue(value.asBoolean());
+            break;
+          case INTEGER:
+            writer.integerValue(value.asInt());
+            break;
+          case NUMERIC:
+            writer.doubleValue(value.asDouble());
+            break;
+          case JSON:
+            writer.jsonValue(value.asText());
+            break;
+          default:
+            writer.stringValue(value.asText());
+        }
+        JsonNode bandit = flag.path("bandit");
+        if (bandit.isObject()) {
+          writer.endFlag(
+              bandit.path("key").asText(),
+              bandit.path("action").asText(),
+              bandit.path("modelVersion").asText(),
+              bandit.path("actionProbability").asDouble(),
+              bandit.path("optimalityGap").asDouble());
+        } else {
+          writer.endFlag();
+        }
+      }
+      return fromBytes(writer.toBytes());
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Invalid precomputed assignments JSON", e);
+    }
+  }
+
+  /**
+   * The fingerprint of the configuration these assignments were computed from; compare it with
+   * {@link ConfigurationSnapshot#getFingerprint()} of the current configuration to detect a stale
+   * payload.
+   */
+  public long getConfigurationFingerprint() {
+    return configurationFingerprint;
+  }
+
+  /**
+   * The {@link ConfigurationSnapshot#getVersion()} of the configuration in the process that
+   * computed these assignments. It is only meaningful within that process; use {@link
+   * #getConfigurationFingerprint()} to compare configurations elsewhere.
+   */
+  public long getConfigurationVersion() {
+    return configurationVersion;
+  }
+
+  /** When these assignments were computed, in milliseconds since the epoch. */
+  public long getCreatedAtMillis() {
+    return createdAtMillis;
+  }
+
+  public String getSubjectKey() {
+    return subjectKey;
+  }
+
+  /** Keys of the flags for which the subject received an assignment. */
+  public Set<String> getFlagKeys() {
+    return offsets.keySet();
+  }
+
+  public boolean getBooleanAssignment(String flagKey, boolean defaultValue) {
+    int position = valuePosition(flagKey, TYPE_BOOLEAN);
+    return position < 0 ? defaultValue : buffer.get(position) != 0;
+  }
+
+  public int getIntegerAssignment(String flagKey, int defaultValue) {
+    int position = valuePosition(flagKey, TYPE_INTEGER);
+    return position < 0 ? defaultValue : buffer.getInt(position);
+  }
+
+  public double getDoubleAssignment(String flagKey, double defaultValue) {
+    int position = valuePosition(flagKey, TYPE_NUMERIC);
+    return position < 0 ? defaultValue : buffer.getDouble(position);
+  }
+
+  public String getStringAssignment(String flagKey, String defaultValue) {
+    int position = valuePosition(flagKey, TYPE_STRING);
+    return position < 0 ? defaultValue : readString(position);
+  }
+
+  public String getJSONStringAssignment(String flagKey, String defaultValue) {
+    int position = valuePosition(flagKey, TYPE_JSON);
+    return position < 0 ? defaultValue : readString(position);
+  }
+
+  /** The key of the allocation that assigned the flag, or null if the flag has no assignment. */
+  @Nullable public String getAllocationKey(String flagKey) {
+    Integer offset = offsets.get(flagKey);
+    return offset == null ? null : readString(offset);
+  }
+
+  /** The key of the assigned variation, or null if the flag has no assignment. */
+  @Nullable public String getVariationKey(String flagKey) {
+    Integer offset = offsets.get(flagKey);
+    return offset == null ? null : readString(skipString(offset));
+  }
+
+  /** Whether serving the flag's assignment should be logged. */
+  public boolean shouldLogAssignment(String flagKey) {
+    Integer offset = offsets.get(flagKey);
+    return offset != null && buffer.get(skipString(skipString(offset))) != 0;
+  }
+
+  /** Returns the key of the bandit that chose the flag's action, or null if there is none. */
+  @Nullable public String getBanditKey(String flagKey) {
+    int position = banditPosition(flagKey);
+    return position < 0 ? null : readString(position);
+  }
+
+  /** Returns the precomputed bandit action for the flag, or null if there is none. */
+  @Nullable public String getBanditAction(String flagKey) {
+    int position = banditPosition(flagKey);
+    return position < 0 ? null : readString(skipString(position));
+  }
+
+  /** Returns the version of the bandit model that chose the action, or null if there is none. */
+  @Nullable public String getBanditModelVersion(String flagKey) {
+    int position = banditPosition(flagKey);
+    return position < 0 ? null : readString(skipString(skipString(position)));
+  }
+
+  /** Returns the probability with which the bandit chose the action, or null if there is none. */
+  @Nullable public Double getBanditActionProbability(String flagKey) {
+    int position = banditPosition(flagKey);
+    return position < 0 ? null : buffer.getDouble(skipBanditStrings(position));
+  }
+
+  /**
+   * Returns how far the chosen action's score was from the best action's, or null if there is no
+   * bandit action.
+   */
+  @Nullable public Double getBanditOptimalityGap(String flagKey) {
+    int position = banditPosition(flagKey);
+    return position < 0 ? null : buffer.getDouble(skipBanditStrings(position) + 8);
+  }
+
+  /** Returns the binary payload. */
+  public byte[] toBytes() {
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.duplicate().get(bytes);
+    return bytes;
+  }
+
+  /** Returns the payload as JSON, for consumers that cannot use the binary form. */
+  public String toJson() {
+    ObjectNode root = mapper.createObjectNode();
+    root.put("formatVersion", FORMAT_VERSION);
+    // As a string, since JSON numbers are not reliably 64-bit
+    root.put("configurationFingerprint", Long.toHexString(configurationFingerprint));
+    root.put("configurationVersion", configurationVersion);
+    root.put("createdAt", createdAtMillis);
+    root.put("subjectKey", subjectKey);
+    ObjectNode flags = root.putObject("flags");
+    for (String flagKey : offsets.keySet()) {
+      ObjectNode flag = flags.putObject(flagKey);
+      flag.put("allocationKey", getAllocationKey(flagKey));
+      flag.put("variationKey", getVariationKey(flagKey));
+      flag.put("doLog", shouldLogAssignment(flagKey));
+      int typePosition = typePosition(offsets.get(flagKey));
+      int position = typePosition + 1;
+      switch (buffer.get(typePosition)) {
+        case TYPE_BOOLEAN:
+          flag.put("variationType", VariationType.BOOLEAN.name());
+          flag.put("value", buffer.get(position) != 0);
+          break;
+        case TYPE_INTEGER:
+          flag.put("variationType", VariationType.INTEGER.name());
+          flag.put("value", buffer.getInt(position));
+          break;
+        case TYPE_NUMERIC:
+          flag.put("variationType", VariationType.NUMERIC.name());
+          flag.put("value", buffer.getDouble(position));
+          break;
+        case TYPE_JSON:
+          flag.put("variationType", VariationType.JSON.name());
+          flag.put("value", readString(position));
+          break;
+        default:
+          flag.put("variationType", VariationType.STRING.name());
+          flag.put("value", readString(position));
+      }
+      String banditKey = getBanditKey(flagKey);
+      if (banditKey != null) {
+        ObjectNode bandit = flag.putObject("bandit");
+        bandit.put("key", banditKey);
+        bandit.put("action", getBanditAction(flagKey));
+        bandit.put("modelVersion", getBanditModelVersion(flagKey));
+        bandit.put("actionProbability", getBanditActionProbability(flagKey));
+        bandit.put("optimalityGap", getBanditOptimalityGap(flagKey));
+      }
+    }
+    try {
+      return mapper.writeValueAsString(root);
+    } catch (IOException e) {
+      throw new RuntimeException("Unable to serialize precomputed assignments", e);
+    }
+  }
+
+  /** Returns the position of the flag's value, or -1 if it is missing or of another type. */
+  private int valuePosition(String flagKey, byte expectedType) {
+    Integer offset = offsets.get(flagKey);
+    if (offset == null) {
+      return -1;
+    }
+    int typePosition = typePosition(offset);
+    return buffer.get(typePosition) == expectedType ? typePosition + 1 : -1;
+  }
+
+  /** Returns the position of the flag's bandit key, or -1 if it has no bandit action. */
+  private int banditPosition(String flagKey) {
+    Integer offset = offsets.get(flagKey);
+    if (offset == null) {
+      return -1;
+    }
+    int typePosition = typePosition(offset);
+    int position = typePosition + 1 + valueLength(typePosition);
+    return buffer.get(position) == 0 ? -1 : position + 1;
+  }
+
+  /** Skips the allocation key, variation key and log flag of the entry at {@code offset}. */
+  private int typePosition(int offset) {
+    return skipString(skipString(offset)) + 1;
+  }
+
+  /** Returns the position just past the entry at {@code offset}. */
+  private int skipEntry(int offset) {
+    int typePosition = typePosition(offset);
+    int position = typePosition + 1 + valueLength(typePosition);
+    if (buffer.get(position++) != 0) {
+      position = skipBanditStrings(position) + 8 + 8;
+    }
+    return position;
+  }
+
+  /** Skips the bandit key, action and model version, to the action probability. */
+  private int skipBanditStrings(int position) {
+    return skipString(skipString(skipString(position)));
+  }
+
+  private int valueLength(int typePosition) {
+    switch (buffer.get(typePosition)) {
+      case TYPE_BOOLEAN:
+        return 1;
+      case TYPE_INTEGER:
+        return 4;
+      case TYPE_NUMERIC:
+        return 8;
+      case TYPE_STRING:
+      case TYPE_JSON:
+        return 4 + buffer.getInt(typePosition + 1);
+      default:
+        throw new IllegalArgumentException("Unknown variation type " + buffer.get(typePosition));
+    }
+  }
+
+  private int skipString(int position) {
+    return position + 4 + buffer.getInt(position);
+  }
+
+  private String readString(int position) {
+    int length = buffer.getInt(position);
+    if (buffer.hasArray()) {
+      return new String(
+          buffer.array(), buffer.arrayOffset() + position + 4, length, StandardCharsets.UTF_8);
+    }
+    byte[] bytes = new byte[length];
+    ByteBuffer source = buffer.duplicate();
+    source.position(position + 4);
+    source.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Encodes assignments into the binary layout described above. Each flag is written by {@link
+   * #startFlag}, then one value method, then {@link #endFlag}.
+   */
+  static final class Writer {
+    private final ByteArrayOutputStream entryBytes = new ByteArrayOutputStream();
+    private final DataOutputStream entries = new DataOutputStream(entryBytes);
+    private final long configurationFingerprint;
+    private final long configurationVersion;
+    private final long createdAtMillis;
+    private final String subjectKey;
+    private int count;
+
+    Writer(
+        long configurationFingerprint,
+        long configurationVersion,
+        long createdAtMillis,
+        String subjectKey) {
+      this.configurationFingerprint = configurationFingerprint;
+      this.configurationVersion = configurationVersion;
+      this.createdAtMillis = createdAtMillis;
+      this.subjectKey = subjectKey;
+    }
+
+    void startFlag(String flagKey, String allocationKey, String variationKey, boolean doLog)
+        throws IOException {
+      writeString(entries, flagKey);
+      writeString(entries, allocationKey);
+      writeString(entries, variationKey);
+      entries.writeBoolean(doLog);
+      count++;
+    }
+
+    void booleanValue(boolean value) throws IOException {
+      entries.writeByte(TYPE_BOOLEAN);
+      entries.writeBoolean(value);
+    }
+
+    void integerValue(int value) throws IOException {
+      entries.writeByte(TYPE_INTEGER);
+      entries.writeInt(value);
+    }
+
+    void doubleValue(double value) throws IOException {
+      entries.writeByte(TYPE_NUMERIC);
+      entries.writeDouble(value);
+    }
+
+    void stringValue(String value) throws IOException {
+      entries.writeByte(TYPE_STRING);
+      writeString(entries, value);
+    }
+
+    void jsonValue(String value) throws IOException {
+      entries.writeByte(TYPE_JSON);
+      writeString(entries, value);
+    }
+
+    void endFlag() throws IOException {
+      entries.writeByte(0);
+    }
+
+    void endFlag(
+        String banditKey,
+        String banditAction,
+        String banditModelVersion,
+        double actionProbability,
+        double optimalityGap)
+        throws IOException {
+      entries.writeByte(1);
+      writeString(entries, banditKey);
+      writeString(entries, banditAction);
+      writeString(entries, banditModelVersion);
+      entries.writeDouble(actionProbability);
+      entries.writeDouble(optimalityGap);
+    }
+
+    byte[] toBytes() throws IOException {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream(entryBytes.size() + 64);
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(MAGIC);
+      out.writeByte(FORMAT_VERSION);
+      out.writeLong(configurationFingerprint);
+      out.writeLong(configurationVersion);
+      out.writeLong(createdAtMillis);
+      writeString(out, subjectKey);
+      out.writeInt(count);
+      entryBytes.writeTo(out);
+      out.flush();
+
+      CRC32 crc = new CRC32();
+      crc.update(bytes.toByteArray());
+      out.writeInt((int) crc.getValue());
+      out.flush();
+      return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+}
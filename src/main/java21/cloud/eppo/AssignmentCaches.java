@@ -0,0 +1,61 @@
+package cloud.eppo;
+
+import cloud.eppo.api.IAssignmentCache;
+import cloud.eppo.cache.AssignmentCacheEntry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Creates the default assignment caches. This is the JDK 21 implementation packaged under {@code
+ * META-INF/versions/21}.
+ *
+ * <p>{@code LRUInMemoryAssignmentCache} guards its map with {@code synchronized}, which pins a
+ * virtual thread to its carrier while it holds the monitor. Every assignment goes through the
+ * cache, so here the LRU map is guarded by a {@link ReentrantLock} instead.
+ */
+final class AssignmentCaches {
+  private AssignmentCaches() {}
+
+  static IAssignmentCache newLruCache(int maxSize) {
+    return new LockingLruAssignmentCache(maxSize);
+  }
+
+  private static final class LockingLruAssignmentCache implements IAssignmentCache {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<String, String> cache;
+
+    LockingLruAssignmentCache(int maxSize) {
+      this.cache =
+          new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+              return size() > maxSize;
+            }
+          };
+    }
+
+    @Override
+    public void put(AssignmentCacheEntry entry) {
+      lock.lock();
+      try {
+        cache.put(entry.getKeyString(), entry.getValueKeyString());
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    @Override
+    public boolean hasEntry(AssignmentCacheEntry entry) {
+      String value;
+      lock.lock();
+      try {
+        // An access-ordered LinkedHashMap is modified by get(), so reads need the lock too
+        value = cache.get(entry.getKeyString());
+      } finally {
+        lock.unlock();
+      }
+      return entry.getValueKeyString().equals(value);
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package cloud.eppo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cloud.eppo.cache.AssignmentCacheEntry;
+import cloud.eppo.cache.AssignmentCacheKey;
+import cloud.eppo.cache.VariationCacheValue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+public class ApproximateAssignmentCacheTest {
+  private static final long WINDOW_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+  private final AtomicLong clock = new AtomicLong();
+
+  @Test
+  public void testHasEntry() {
+    ApproximateAssignmentCache cache = newCache(1000, 0.01);
+    AssignmentCacheEntry entry = entry("subject1", "flag1", "control");
+
+    assertFalse(cache.hasEntry(entry));
+    cache.put(entry);
+    assertTrue(cache.hasEntry(entry));
+
+    // A new variation for the same subject and flag should be logged again
+    assertFalse(cache.hasEntry(entry("subject1", "flag1", "treatment")));
+    assertFalse(cache.hasEntry(entry("subject1", "flag2", "control")));
+  }
+
+  @Test
+  public void testEntriesExpireAfterTwoWindows() {
+    ApproximateAssignmentCache cache = newCache(1000, 0.01);
+    AssignmentCacheEntry entry = entry("subject1", "flag1", "control");
+    cache.put(entry);
+
+    clock.addAndGet(WINDOW_NANOS);
+    assertTrue(cache.hasEntry(entry));
+
+    clock.addAndGet(WINDOW_NANOS);
+    assertFalse(cache.hasEntry(entry));
+    assertEquals(2, cache.getStatistics().getRotations());
+  }
+
+  @Test
+  public void testEntriesExpireAfterIdlePeriod() {
+    ApproximateAssignmentCache cache = newCache(1000, 0.01);
+    AssignmentCacheEntry entry = entry("subject1", "flag1", "control");
+    cache.put(entry);
+
+    // Nothing touches the cache for several windows
+    clock.addAndGet(WINDOW_NANOS * 5);
+    assertFalse(cache.hasEntry(entry));
+  }
+
+  @Test
+  public void testFalsePositiveRate() {
+    int entries = 10_000;
+    double targetRate = 0.01;
+    ApproximateAssignmentCache cache = newCache(entries, targetRate);
+    for (int i = 0; i < entries; i++) {
+      cache.put(entry("subject" + i, "flag1", "control"));
+    }
+    // Fill the second filter as well, so that lookups check two full filters
+    clock.addAndGet(WINDOW_NANOS);
+    for (int i = 0; i < entries; i++) {
+      cache.put(entry("subject" + i, "flag2", "control"));
+    }
+
+    int falsePositives = 0;
+    int probes = 100_000;
+    for (int i = 0; i < probes; i++) {
+      if (cache.hasEntry(entry("other" + i, "flag1", "control"))) {
+        falsePositives++;
+      }
+    }
+    double observedRate = (double) falsePositives / probes;
+    assertTrue(observedRate < targetRate * 1.5, "Observed false positive rate " + observedRate);
+
+    ApproximateAssignmentCache.Statistics statistics = cache.getStatistics();
+    assertEquals(probes, statistics.getLookups());
+    assertEquals(falsePositives, statistics.getHits());
+    assertEquals(entries, statistics.getCurrentWindowInsertions());
+    assertTrue(statistics.getExpectedFalsePositiveRate() <= targetRate * 1.1);
+    assertTrue(statistics.getMemoryBytes() > 0);
+  }
+
+  @Test
+  public void testInvalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> newCache(0, 0.01));
+    assertThrows(IllegalArgumentException.class, () -> newCache(1000, 0));
+    assertThrows(IllegalArgumentException.class, () -> newCache(1000, 1));
+    // More bits than an AtomicLongArray can hold
+    assertThrows(IllegalArgumentException.class, () -> newCache(20_000_000_000L, 0.01));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new ApproximateAssignmentCache(1000, 0.01, 0, TimeUnit.MINUTES));
+  }
+
+  private ApproximateAssignmentCache newCache(long expectedEntries, double falsePositiveRate) {
+    return new ApproximateAssignmentCache(
+        expectedEntries, falsePositiveRate, WINDOW_NANOS, clock::get);
+  }
+
+  private static AssignmentCacheEntry entry(String subjectKey, String flagKey, String variation) {
+    return new AssignmentCacheEntry(
+        new AssignmentCacheKey(subjectKey, flagKey),
+        new VariationCacheValue("allocation1", variation));
+  }
+}
@@ -0,0 +1,63 @@
+package cloud.eppo;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import cloud.eppo.api.IAssignmentCache;
+import cloud.eppo.cache.AssignmentCacheEntry;
+import cloud.eppo.cache.AssignmentCacheKey;
+import cloud.eppo.cache.LRUInMemoryAssignmentCache;
+import cloud.eppo.cache.VariationCacheValue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+
+public class AssignmentCachesTest {
+
+  @Test
+  public void testLruCacheHasEntry() {
+    IAssignmentCache cache = AssignmentCaches.newLruCache(10);
+    AssignmentCacheEntry entry = entry("subject1", "flag1", "control");
+
+    assertFalse(cache.hasEntry(entry));
+    cache.put(entry);
+    assertTrue(cache.hasEntry(entry));
+
+    // Same subject and flag with a different variation is not a hit
+    assertFalse(cache.hasEntry(entry("subject1", "flag1", "treatment")));
+  }
+
+  @Test
+  public void testLruCacheEvictsLeastRecentlyUsed() {
+    IAssignmentCache cache = AssignmentCaches.newLruCache(2);
+    AssignmentCacheEntry first = entry("subject1", "flag1", "control");
+    AssignmentCacheEntry second = entry("subject2", "flag1", "control");
+    AssignmentCacheEntry third = entry("subject3", "flag1", "control");
+
+    cache.put(first);
+    cache.put(second);
+    // Touch the first entry so that the second becomes the least recently used
+    assertTrue(cache.hasEntry(first));
+    cache.put(third);
+
+    assertTrue(cache.hasEntry(first));
+    assertFalse(cache.hasEntry(second));
+    assertTrue(cache.hasEntry(third));
+  }
+
+  // Only the testJava21 task runs against the packaged JAR; the plain test task uses the Java 8
+  // classes directly on every JDK.
+  @Test
+  @EnabledForJreRange(min = JRE.JAVA_21)
+  @EnabledIfSystemProperty(named = "eppo.multiReleaseJar", matches = "true")
+  public void testMultiReleaseJarSelectsJava21Cache() {
+    assertFalse(AssignmentCaches.newLruCache(10) instanceof LRUInMemoryAssignmentCache);
+  }
+
+  private static AssignmentCacheEntry entry(String subjectKey, String flagKey, String variation) {
+    return new AssignmentCacheEntry(
+        new AssignmentCacheKey(subjectKey, flagKey),
+        new VariationCacheValue("allocation1", variation));
+  }
+}
@@ -6,8 +6,13 @@ import static cloud.eppo.helpers.BanditTestCase.parseBanditTestCaseFile;
 import static cloud.eppo.helpers.BanditTestCase.runBanditTestCase;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.mockito.Mockito.*;
 
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
 import cloud.eppo.api.Attributes;
 import cloud.eppo.api.BanditActions;
 import cloud.eppo.api.BanditResult;
@@ -24,11 +29,16 @@ import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import com.github.tomakehurst.wiremock.junit5.WireMockExtension;
 import java.io.File;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.AfterAll;
@@ -40,6 +50,7 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.ArgumentCaptor;
+import org.slf4j.LoggerFactory;
 
 @ExtendWith(WireMockExtension.class)
 public class EppoClientTest {
@@ -317,6 +328,340 @@ public class EppoClientTest {
     assertEquals(3, received.size());
   }
 
+  @Test
+  public void testPrimitiveAssignmentsForInactiveFlags() {
+    initClientWithConfig(DISABLED_FLAGS_CONFIG);
+    EppoClient eppoClient = EppoClient.getInstance();
+
+    assertTrue(eppoClient.getBooleanAssignment("disabled_boolean_flag", "subject1", true));
+    assertEquals(7, eppoClient.getIntegerAssignment("disabled_integer_flag", "subject1", 7));
+    assertEquals(
+        1.5, eppoClient.getDoubleAssignment("disabled_numeric_flag", "subject1", 1.5), 0.0);
+    assertEquals(
+        -3, eppoClient.getIntegerAssignment("missing_flag", "subject1", new Attributes(), -3));
+  }
+
+  @Test
+  public void testPrimitiveAssignmentsForStaticFlagsDoNotAllocate() {
+    // No assignment logger, and logging left at its configured level
+    initClientWithConfig(PRECOMPUTE_CONFIG);
+    EppoClient eppoClient = EppoClient.getInstance();
+
+    com.sun.management.ThreadMXBean threadBean =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+    threadBean.setThreadAllocatedMemoryEnabled(true);
+    long threadId = Thread.currentThread().getId();
+
+    int iterations = 100_000;
+    // Warm up so that class loading and JIT compilation are not counted
+    evaluateStaticFlags(eppoClient, iterations);
+
+    long before = threadBean.getThreadAllocatedBytes(threadId);
+    int assigned = evaluateStaticFlags(eppoClient, iterations);
+    long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+    assertEquals(iterations * 3, assigned);
+    // Allow for the measurement itself; anything per-call would be at least `iterations` bytes
+    assertTrue(allocated < iterations, "Allocated " + allocated + " bytes");
+  }
+
+  private static int evaluateStaticFlags(EppoClient eppoClient, int iterations) {
+    int assigned = 0;
+    for (int i = 0; i < iterations; i++) {
+      if (eppoClient.getBooleanAssignment("boolean_flag", "subject1", false)) {
+        assigned++;
+      }
+      if (eppoClient.getIntegerAssignment("zero_integer_flag", "subject1", 7) == 0) {
+        assigned++;
+      }
+      if (eppoClient.getDoubleAssignment("pi_flag", "subject1", 1.5) == 3.14) {
+        assigned++;
+      }
+    }
+    return assigned;
+  }
+
+  @Test
+  public void testStaticAssignmentsOnlyForSubjectIndependentFlags() {
+    initClientWithConfig(TARGETED_FLAGS_CONFIG);
+    EppoClient eppoClient = EppoClient.getInstance();
+
+    ConfigurationSnapshot snapshot = eppoClient.getConfigurationSnapshot();
+    assertNotNull(snapshot.getStaticAssignment("static_flag"));
+    assertNull(snapshot.getStaticAssignment("targeted_flag"));
+    assertNull(snapshot.getStaticAssignment("sharded_flag"));
+
+    assertTrue(eppoClient.getBooleanAssignment("static_flag", "subject1", false));
+    Attributes usAttributes = new Attributes();
+    usAttributes.put("country", "US");
+    assertTrue(eppoClient.getBooleanAssignment("targeted_flag", "subject1", usAttributes, false));
+    Attributes mxAttributes = new Attributes();
+    mxAttributes.put("country", "MX");
+    assertFalse(eppoClient.getBooleanAssignment("targeted_flag", "subject1", mxAttributes, true));
+    assertTrue(eppoClient.getBooleanAssignment("sharded_flag", "subject1", false));
+  }
+
+  @Test
+  public void testPrimitiveAssignmentsKeepValidationAndWarnings() {
+    initClientWithConfig(DISABLED_FLAGS_CONFIG);
+    EppoClient eppoClient = EppoClient.getInstance();
+
+    Logger clientLogger = (Logger) LoggerFactory.getLogger(EppoClient.class);
+    ListAppender<ILoggingEvent> appender = new ListAppender<>();
+    appender.start();
+    clientLogger.addAppender(appender);
+    try {
+      assertFalse(eppoClient.getBooleanAssignment("missing_flag", "subject1", false));
+      assertTrue(
+          appender.list.stream()
+              .anyMatch(
+                  event ->
+                      event.getLevel() == Level.WARN
+                          && event.getFormattedMessage().contains("missing_flag")));
+    } finally {
+      clientLogger.detachAppender(appender);
+    }
+
+    // isGracefulMode(false) in initClientWithConfig, so invalid arguments still throw
+    assertThrows(Exception.class, () -> eppoClient.getBooleanAssignment("missing_flag", "", false));
+    assertThrows(
+        Exception.class, () -> eppoClient.getIntegerAssignment("disabled_integer_flag", null, 1));
+    assertThrows(Exception.class, () -> eppoClient.getDoubleAssignment(null, "subject1", 1.5));
+    assertThrows(Exception.class, () -> eppoClient.getDoubleAssignment("", "subject1", 1.5));
+  }
+
+  @Test
+  public void testConfigurationSnapshotVersions() {
+    EppoHttpClient mockHttpClient = mock(EppoHttpClient.class);
+    when(mockHttpClient.get(anyString())).thenReturn(DISABLED_FLAGS_CONFIG);
+    setBaseClientHttpClientOverrideField(mockHttpClient);
+
+    EppoClient eppoClient =
+        EppoClient.builder(DUMMY_FLAG_API_KEY)
+            .pollingIntervalMs(0)
+            .forceReinitialize(true)
+            .buildAndInit();
+
+    ConfigurationSnapshot first = eppoClient.getConfigurationSnapshot();
+    assertEquals(1, first.getVersion());
+    assertNull(first.getConfiguration().getFlag("9a2025738dde19ff44cd30b9d2967000"));
+
+    when(mockHttpClient.get(anyString())).thenReturn(BOOL_FLAG_CONFIG);
+    eppoClient.loadConfiguration();
+
+    ConfigurationSnapshot second = eppoClient.getConfigurationSnapshot();
+    assertEquals(2, second.getVersion());
+    assertNotNull(second.getConfiguration().getFlag("9a2025738dde19ff44cd30b9d2967000"));
+
+    assertNotEquals(first.getFingerprint(), second.getFingerprint());
+
+    // Earlier snapshots are unaffected by the new configuration
+    assertNull(first.getConfiguration().getFlag("9a2025738dde19ff44cd30b9d2967000"));
+
+    // Fetching the same configuration again does not create a new version
+    eppoClient.loadConfiguration();
+    ConfigurationSnapshot third = eppoClient.getConfigurationSnapshot();
+    assertSame(second, third);
+    assertEquals(2, third.getVersion());
+  }
+
+  @Test
+  public void testSnapshotBoundAssignments() {
+    EppoHttpClient mockHttpClient = mock(EppoHttpClient.class);
+    when(mockHttpClient.get(anyString())).thenReturn(PRECOMPUTE_CONFIG);
+    setBaseClientHttpClientOverrideField(mockHttpClient);
+    AssignmentLogger assignmentLogger = mock(AssignmentLogger.class);
+
+    EppoClient eppoClient =
+        EppoClient.builder(DUMMY_FLAG_API_KEY)
+            .assignmentLogger(assignmentLogger)
+            .pollingIntervalMs(0)
+            .isGracefulMode(false)
+            .forceReinitialize(true)
+            .buildAndInit();
+    ConfigurationSnapshot snapshot = eppoClient.getConfigurationSnapshot();
+
+    // A configuration without the flags is applied
+    when(mockHttpClient.get(anyString())).thenReturn(DISABLED_FLAGS_CONFIG);
+    eppoClient.loadConfiguration();
+    assertNotSame(snapshot, eppoClient.getConfigurationSnapshot());
+    assertSame(
+        eppoClient.getConfigurationSnapshot().getConfiguration(), eppoClient.getConfiguration());
+    assertFalse(eppoClient.getBooleanAssignment("boolean_flag", "subject1", false));
+
+    // The earlier snapshot still assigns, logging through the client's logger and cache
+    Attributes attributes = new Attributes();
+    assertTrue(
+        eppoClient.getBooleanAssignment(snapshot, "boolean_flag", "subject1", attributes, false));
+    assertTrue(
+        eppoClient.getBooleanAssignment(snapshot, "boolean_flag", "subject1", attributes, false));
+    assertEquals(
+        0, eppoClient.getIntegerAssignment(snapshot, "zero_integer_flag", "subject1", null, 5));
+    assertEquals(
+        "blue",
+        eppoClient.getStringAssignment(snapshot, "string_flag", "subject1", attributes, "default"));
+
+    ArgumentCaptor<Assignment> assignmentLogCaptor = ArgumentCaptor.forClass(Assignment.class);
+    verify(assignmentLogger, times(3)).logAssignment(assignmentLogCaptor.capture());
+    Assignment assignment = assignmentLogCaptor.getAllValues().get(0);
+    assertEquals("boolean_flag-allocation", assignment.getExperiment());
+    assertEquals("boolean_flag", assignment.getFeatureFlag());
+    assertEquals("allocation", assignment.getAllocation());
+    assertEquals("on", assignment.getVariation());
+    assertEquals("subject1", assignment.getSubject());
+  }
+
+  @Test
+  public void testPrecomputeAssignments() {
+    EppoHttpClient mockHttpClient = mock(EppoHttpClient.class);
+    when(mockHttpClient.get(anyString())).thenReturn(PRECOMPUTE_CONFIG);
+    setBaseClientHttpClientOverrideField(mockHttpClient);
+    AssignmentLogger assignmentLogger = mock(AssignmentLogger.class);
+    BanditLogger banditLogger = mock(BanditLogger.class);
+
+    // No dedup cache, so any logging during precompute would show up
+    EppoClient eppoClient =
+        EppoClient.builder(DUMMY_FLAG_API_KEY)
+            .assignmentLogger(assignmentLogger)
+            .banditLogger(banditLogger)
+            .assignmentCache(null)
+            .banditAssignmentCache(null)
+            .pollingIntervalMs(0)
+            .isGracefulMode(false)
+            .forceReinitialize(true)
+            .buildAndInit();
+
+    PrecomputedAssignments assignments =
+        PrecomputedAssignments.fromBytes(
+            eppoClient.precomputeAssignments("subject1", new Attributes()).toBytes());
+
+    verify(assignmentLogger, never()).logAssignment(any());
+    verify(banditLogger, never()).logBanditAssignment(any());
+
+    ConfigurationSnapshot snapshot = eppoClient.getConfigurationSnapshot();
+    assertEquals("subject1", assignments.getSubjectKey());
+    assertEquals(snapshot.getFingerprint(), assignments.getConfigurationFingerprint());
+    assertEquals(snapshot.getVersion(), assignments.getConfigurationVersion());
+    assertEquals(
+        new HashSet<>(
+            Arrays.asList("boolean_flag", "zero_integer_flag", "pi_flag", "string_flag")),
+        assignments.getFlagKeys());
+    assertTrue(assignments.getBooleanAssignment("boolean_flag", false));
+    assertEquals(0, assignments.getIntegerAssignment("zero_integer_flag", 5));
+    assertEquals(3.14, assignments.getDoubleAssignment("pi_flag", 1.5), 0.0);
+    assertEquals("blue", assignments.getStringAssignment("string_flag", "default"));
+    assertEquals("default", assignments.getStringAssignment("disabled_string_flag", "default"));
+
+    // Everything needed to log the assignment when it is served
+    assertEquals("allocation", assignments.getAllocationKey("string_flag"));
+    assertEquals("blue", assignments.getVariationKey("string_flag"));
+    assertTrue(assignments.shouldLogAssignment("string_flag"));
+    assertNull(assignments.getBanditKey("string_flag"));
+  }
+
+  @Test
+  public void testPrecomputeBanditAction() {
+    EppoClient eppoClient = initClient(DUMMY_BANDIT_API_KEY);
+    String flagKey = "banner_bandit_flag";
+    Attributes subjectAttributes = banditSubjectAttributes();
+    BanditActions actions = banditActions();
+
+    PrecomputedAssignments assignments =
+        PrecomputedAssignments.fromBytes(
+            eppoClient
+                .precomputeAssignments(
+                    "bob", subjectAttributes, Collections.singletonMap(flagKey, actions))
+                .toBytes());
+    verify(mockAssignmentLogger, never()).logAssignment(any());
+    verify(mockBanditLogger, never()).logBanditAssignment(any());
+
+    // The same choice as assigning the bandit action directly from the same configuration
+    BanditResult banditResult =
+        eppoClient.getBanditAction(flagKey, "bob", subjectAttributes, actions, "control");
+    assertEquals("adidas", banditResult.getAction());
+    assertEquals(banditResult.getVariation(), assignments.getStringAssignment(flagKey, "control"));
+    assertEquals(banditResult.getAction(), assignments.getBanditAction(flagKey));
+
+    ArgumentCaptor<BanditAssignment> banditLogCaptor =
+        ArgumentCaptor.forClass(BanditAssignment.class);
+    verify(mockBanditLogger, times(1)).logBanditAssignment(banditLogCaptor.capture());
+    BanditAssignment banditAssignment = banditLogCaptor.getValue();
+    assertEquals("banner_bandit", assignments.getBanditKey(flagKey));
+    assertEquals(banditAssignment.getModelVersion(), assignments.getBanditModelVersion(flagKey));
+    assertEquals(
+        (double) banditAssignment.getActionProbability(),
+        (double) assignments.getBanditActionProbability(flagKey),
+        1e-12);
+    assertEquals(
+        (double) banditAssignment.getOptimalityGap(),
+        (double) assignments.getBanditOptimalityGap(flagKey),
+        1e-12);
+
+    // Payloads survive the JSON form too
+    PrecomputedAssignments fromJson = PrecomputedAssignments.fromJson(assignments.toJson());
+    assertEquals(banditResult.getAction(), fromJson.getBanditAction(flagKey));
+    assertEquals(
+        assignments.getBanditActionProbability(flagKey),
+        fromJson.getBanditActionProbability(flagKey));
+  }
+
+  /** The subject used with the shared bandit test data in {@link #testLoggers()}. */
+  private static Attributes banditSubjectAttributes() {
+    Attributes subjectAttributes = new Attributes();
+    subjectAttributes.put("age", 25);
+    subjectAttributes.put("country", "USA");
+    subjectAttributes.put("gender_identity", "female");
+    return subjectAttributes;
+  }
+
+  /** The actions used with the shared bandit test data in {@link #testLoggers()}. */
+  private static BanditActions banditActions() {
+    BanditActions actions = new BanditActions();
+
+    Attributes nikeAttributes = new Attributes();
+    nikeAttributes.put("brand_affinity", 1.5);
+    nikeAttributes.put("loyalty_tier", "silver");
+    actions.put("nike", nikeAttributes);
+
+    Attributes adidasAttributes = new Attributes();
+    adidasAttributes.put("brand_affinity", -1.0);
+    adidasAttributes.put("loyalty_tier", "bronze");
+    actions.put("adidas", adidasAttributes);
+
+    Attributes reebokAttributes = new Attributes();
+    reebokAttributes.put("brand_affinity", 0.5);
+    reebokAttributes.put("loyalty_tier", "gold");
+    actions.put("reebok", reebokAttributes);
+    return actions;
+  }
+
+  @Test
+  public void testApproximateAssignmentCacheStatistics() {
+    EppoHttpClient mockHttpClient = mock(EppoHttpClient.class);
+    when(mockHttpClient.get(anyString())).thenReturn(PRECOMPUTE_CONFIG);
+    setBaseClientHttpClientOverrideField(mockHttpClient);
+    AssignmentLogger assignmentLogger = mock(AssignmentLogger.class);
+
+    EppoClient eppoClient =
+        EppoClient.builder(DUMMY_FLAG_API_KEY)
+            .assignmentLogger(assignmentLogger)
+            .approximateAssignmentCache(1000, 0.01, 10, TimeUnit.MINUTES)
+            .pollingIntervalMs(0)
+            .forceReinitialize(true)
+            .buildAndInit();
+
+    assertTrue(eppoClient.getBooleanAssignment("boolean_flag", "subject1", false));
+    assertTrue(eppoClient.getBooleanAssignment("boolean_flag", "subject1", false));
+    verify(assignmentLogger, times(1)).logAssignment(any());
+
+    ApproximateAssignmentCache.Statistics statistics =
+        eppoClient.getApproximateAssignmentCacheStatistics();
+    assertNotNull(statistics);
+    assertEquals(2, statistics.getLookups());
+    assertEquals(1, statistics.getHits());
+  }
+
   public static void mockHttpError() {
     // Create a mock instance of EppoHttpClient
     EppoHttpClient mockHttpClient = mock(EppoHttpClient.class);
@@ -354,6 +699,18 @@ public class EppoClientTest {
         .buildAndInit();
   }
 
+  private void initClientWithConfig(byte[] config) {
+    EppoHttpClient mockHttpClient = mock(EppoHttpClient.class);
+    when(mockHttpClient.get(anyString())).thenReturn(config);
+    setBaseClientHttpClientOverrideField(mockHttpClient);
+
+    EppoClient.builder(DUMMY_FLAG_API_KEY)
+        .pollingIntervalMs(0)
+        .isGracefulMode(false)
+        .forceReinitialize(true)
+        .buildAndInit();
+  }
+
   private EppoClient initFailingGracefulClient(boolean isGracefulMode) {
     mockAssignmentLogger = mock(AssignmentLogger.class);
     mockBanditLogger = mock(BanditLogger.class);
@@ -383,6 +740,10 @@ public class EppoClientTest {
       Field configurationStoreField = BaseEppoClient.class.getDeclaredField("configurationStore");
       configurationStoreField.setAccessible(true);
       configurationStoreField.set(eppoClient, null);
+      // Assignments are evaluated against the client's snapshot rather than the store
+      Field configurationSnapshotField = EppoClient.class.getDeclaredField("configurationSnapshot");
+      configurationSnapshotField.setAccessible(true);
+      configurationSnapshotField.set(eppoClient, null);
     } catch (NoSuchFieldException | IllegalAccessException e) {
       throw new RuntimeException(e);
     }
@@ -435,4 +796,229 @@ public class EppoClientTest {
               + "  }\n"
               + "}")
           .getBytes();
+
+  private static final byte[] DISABLED_FLAGS_CONFIG =
+      ("{\n"
+              + "  \"createdAt\": \"2024-04-17T19:40:53.716Z\",\n"
+              + "  \"format\": \"SERVER\",\n"
+              + "  \"environment\": {\n"
+              + "    \"name\": \"Test\"\n"
+              + "  },\n"
+              + "  \"flags\": {\n"
+              + "    \"disabled_boolean_flag\": {\n"
+              + "      \"key\": \"disabled_boolean_flag\",\n"
+              + "      \"enabled\": false,\n"
+              + "      \"variationType\": \"BOOLEAN\",\n"
+              + "      \"variations\": {\n"
+              + "        \"off\": {\n"
+              + "          \"key\": \"off\",\n"
+              + "          \"value\": false\n"
+              + "        }\n"
+              + "      },\n"
+              + "      \"allocations\": [],\n"
+              + "      \"totalShards\": 10000\n"
+              + "    },\n"
+              + "    \"disabled_integer_flag\": {\n"
+              + "      \"key\": \"disabled_integer_flag\",\n"
+              + "      \"enabled\": false,\n"
+              + "      \"variationType\": \"INTEGER\",\n"
+              + "      \"variations\": {\n"
+              + "        \"one\": {\n"
+              + "          \"key\": \"one\",\n"
+              + "          \"value\": 1\n"
+              + "        }\n"
+              + "      },\n"
+              + "      \"allocations\": [],\n"
+              + "      \"totalShards\": 10000\n"
+              + "    },\n"
+              + "    \"disabled_numeric_flag\": {\n"
+              + "      \"key\": \"disabled_numeric_flag\",\n"
+              + "      \"enabled\": false,\n"
+              + "      \"variationType\": \"NUMERIC\",\n"
+              + "      \"variations\": {\n"
+              + "        \"pi\": {\n"
+              + "          \"key\": \"pi\",\n"
+              + "          \"value\": 3.1415926\n"
+              + "        }\n"
+              + "      },\n"
+              + "      \"allocations\": [],\n"
+              + "      \"totalShards\": 10000\n"
+              + "    }\n"
+              + "  }\n"
+              + "}")
+          .getBytes();
+
+  private static final byte[] PRECOMPUTE_CONFIG =
+      ("{\n"
+              + "  \"createdAt\": \"2024-04-17T19:40:53.716Z\",\n"
+              + "  \"format\": \"SERVER\",\n"
+              + "  \"environment\": {\n"
+              + "    \"name\": \"Test\"\n"
+              + "  },\n"
+              + "  \"flags\": {\n"
+              + "    \"boolean_flag\": {\n"
+              + "      \"key\": \"boolean_flag\",\n"
+              + "      \"enabled\": true,\n"
+              + "      \"variationType\": \"BOOLEAN\",\n"
+              + "      \"variations\": {\n"
+              + "        \"on\": {\n"
+              + "          \"key\": \"on\",\n"
+              + "          \"value\": true\n"
+              + "        }\n"
+              + "      },\n"
+              + "      \"allocations\": [\n"
+              + "        {\n"
+              + "          \"key\": \"allocation\",\n"
+              + "          \"doLog\": true,\n"
+              + "          \"splits\": [{\"variationKey\": \"on\", \"shards\": []}]\n"
+              + "        }\n"
+              + "      ],\n"
+              + "      \"totalShards\": 10000\n"
+              + "    },\n"
+              + "    \"zero_integer_flag\": {\n"
+              + "      \"key\": \"zero_integer_flag\",\n"
+              + "      \"enabled\": true,\n"
+              + "      \"variationType\": \"INTEGER\",\n"
+              + "      \"variations\": {\n"
+              + "        \"zero\": {\n"
+              + "          \"key\": \"zero\",\n"
+              + "          \"value\": 0\n"
+              + "        }\n"
+              + "      },\n"
+              + "      \"allocations\": [\n"
+              + "        {\n"
+              + "          \"key\": \"allocation\",\n"
+              + "          \"doLog\": true,\n"
+              + "          \"splits\": [{\"variationKey\": \"zero\", \"shards\": []}]\n"
+              + "        }\n"
+              + "      ],\n"
+              + "      \"totalShards\": 10000\n"
+              + "    },\n"
+              + "    \"pi_flag\": {\n"
+              + "      \"key\": \"pi_flag\",\n"
+              + "      \"enabled\": true,\n"
+              + "      \"variationType\": \"NUMERIC\",\n"
+              + "      \"variations\": {\n"
+              + "        \"pi\": {\n"
+              + "          \"key\": \"pi\",\n"
+              + "          \"value\": 3.14\n"
+              + "        }\n"
+              + "      },\n"
+              + "      \"allocations\": [\n"
+              + "        {\n"
+              + "          \"key\": \"allocation\",\n"
+              + "          \"doLog\": true,\n"
+              + "          \"splits\": [{\"variationKey\": \"pi\", \"shards\": []}]\n"
+              + "        }\n"
+              + "      ],\n"
+              + "      \"totalShards\": 10000\n"
+              + "    },\n"
+              + "    \"string_flag\": {\n"
+              + "      \"key\": \"string_flag\",\n"
+              + "      \"enabled\": true,\n"
+              + "      \"variationType\": \"STRING\",\n"
+              + "      \"variations\": {\n"
+              + "        \"blue\": {\n"
+              + "          \"key\": \"blue\",\n"
+              + "          \"value\": \"blue\"\n"
+              + "        }\n"
+              + "      },\n"
+              + "      \"allocations\": [\n"
+              + "        {\n"
+              + "          \"key\": \"allocation\",\n"
+              + "          \"doLog\": true,\n"
+              + "          \"splits\": [{\"variationKey\": \"blue\", \"shards\": []}]\n"
+              + "        }\n"
+              + "      ],\n"
+              + "      \"totalShards\": 10000\n"
+              + "    },\n"
+              + "    \"disabled_string_flag\": {\n"
+              + "      \"key\": \"disabled_string_flag\",\n"
+              + "      \"enabled\": false,\n"
+              + "      \"variationType\": \"STRING\",\n"
+              + "      \"variations\": {},\n"
+              + "      \"allocations\": [],\n"
+              + "      \"totalShards\": 10000\n"
+              + "    }\n"
+              + "  }\n"
+              + "}")
+          .getBytes();
+
+  private static final byte[] TARGETED_FLAGS_CONFIG =
+      ("{\n"
+              + "  \"createdAt\": \"2024-04-17T19:40:53.716Z\",\n"
+              + "  \"format\": \"SERVER\",\n"
+              + "  \"environment\": {\n"
+              + "    \"name\": \"Test\"\n"
+              + "  },\n"
+              + "  \"flags\": {\n"
+              + "    \"static_flag\": {\n"
+              + "      \"key\": \"static_flag\",\n"
+              + "      \"enabled\": true,\n"
+              + "      \"variationType\": \"BOOLEAN\",\n"
+              + "      \"variations\": {\"on\": {\"key\": \"on\", \"value\": true}},\n"
+              + "      \"allocations\": [\n"
+              + "        {\n"
+              + "          \"key\": \"allocation\",\n"
+              + "          \"doLog\": true,\n"
+              + "          \"splits\": [{\"variationKey\": \"on\", \"shards\": []}]\n"
+              + "        }\n"
+              + "      ],\n"
+              + "      \"totalShards\": 10000\n"
+              + "    },\n"
+              + "    \"targeted_flag\": {\n"
+              + "      \"key\": \"targeted_flag\",\n"
+              + "      \"enabled\": true,\n"
+              + "      \"variationType\": \"BOOLEAN\",\n"
+              + "      \"variations\": {\n"
+              + "        \"on\": {\"key\": \"on\", \"value\": true},\n"
+              + "        \"off\": {\"key\": \"off\", \"value\": false}\n"
+              + "      },\n"
+              + "      \"allocations\": [\n"
+              + "        {\n"
+              + "          \"key\": \"us-only\",\n"
+              + "          \"rules\": [\n"
+              + "            {\n"
+              + "              \"conditions\": [\n"
+              + "                {\"attribute\": \"country\", \"operator\": \"ONE_OF\",\n"
+              + "                 \"value\": [\"US\"]}\n"
+              + "              ]\n"
+              + "            }\n"
+              + "          ],\n"
+              + "          \"doLog\": true,\n"
+              + "          \"splits\": [{\"variationKey\": \"on\", \"shards\": []}]\n"
+              + "        },\n"
+              + "        {\n"
+              + "          \"key\": \"everyone-else\",\n"
+              + "          \"doLog\": true,\n"
+              + "          \"splits\": [{\"variationKey\": \"off\", \"shards\": []}]\n"
+              + "        }\n"
+              + "      ],\n"
+              + "      \"totalShards\": 10000\n"
+              + "    },\n"
+              + "    \"sharded_flag\": {\n"
+              + "      \"key\": \"sharded_flag\",\n"
+              + "      \"enabled\": true,\n"
+              + "      \"variationType\": \"BOOLEAN\",\n"
+              + "      \"variations\": {\"on\": {\"key\": \"on\", \"value\": true}},\n"
+              + "      \"allocations\": [\n"
+              + "        {\n"
+              + "          \"key\": \"allocation\",\n"
+              + "          \"doLog\": true,\n"
+              + "          \"splits\": [\n"
+              + "            {\n"
+              + "              \"variationKey\": \"on\",\n"
+              + "              \"shards\": [\n"
+              + "                {\"salt\": \"sharded\",\n"
+              + "                 \"ranges\": [{\"start\": 0, \"end\": 10000}]}\n"
+              + "              ]\n"
+              + "            }\n"
+              + "          ]\n"
+              + "        }\n"
+              + "      ],\n"
+              + "      \"totalShards\": 10000\n"
+              + "    }\n"
+              + "  }\n"
+              + "}")
+          .getBytes();
 }
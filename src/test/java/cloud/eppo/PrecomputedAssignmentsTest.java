@@ -0,0 +1,122 @@
+package cloud.eppo;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.jupiter.api.Test;
+
+public class PrecomputedAssignmentsTest {
+
+  @Test
+  public void testBinaryRoundTrip() throws IOException {
+    PrecomputedAssignments assignments = PrecomputedAssignments.fromBytes(samplePayload());
+    assertSampleAssignments(assignments);
+  }
+
+  @Test
+  public void testReadsFromDirectBuffer() throws IOException {
+    byte[] payload = samplePayload();
+    ByteBuffer buffer = ByteBuffer.allocateDirect(payload.length + 3);
+    buffer.put(new byte[] {9, 9, 9}).put(payload).flip();
+    buffer.position(3);
+
+    PrecomputedAssignments assignments = PrecomputedAssignments.fromByteBuffer(buffer);
+    assertSampleAssignments(assignments);
+    assertArrayEquals(payload, assignments.toBytes());
+  }
+
+  @Test
+  public void testJsonRoundTrip() throws IOException {
+    PrecomputedAssignments assignments = PrecomputedAssignments.fromBytes(samplePayload());
+    PrecomputedAssignments fromJson = PrecomputedAssignments.fromJson(assignments.toJson());
+    assertSampleAssignments(fromJson);
+  }
+
+  @Test
+  public void testTypeMismatchAndMissingFlagsReturnDefault() throws IOException {
+    PrecomputedAssignments assignments = PrecomputedAssignments.fromBytes(samplePayload());
+    assertEquals(5, assignments.getIntegerAssignment("boolean_flag", 5));
+    assertEquals("default", assignments.getStringAssignment("missing_flag", "default"));
+    assertNull(assignments.getBanditAction("missing_flag"));
+  }
+
+  @Test
+  public void testRejectsCorruptPayload() throws IOException {
+    byte[] payload = samplePayload();
+    payload[payload.length / 2] ^= 1;
+    assertThrows(IllegalArgumentException.class, () -> PrecomputedAssignments.fromBytes(payload));
+    assertThrows(
+        IllegalArgumentException.class, () -> PrecomputedAssignments.fromBytes(new byte[8]));
+  }
+
+  private static byte[] samplePayload() throws IOException {
+    PrecomputedAssignments.Writer writer =
+        new PrecomputedAssignments.Writer(0x8badf00ddeadbeefL, 42, 1700000000000L, "subject1");
+    writer.startFlag("boolean_flag", "allocation1", "on", true);
+    writer.booleanValue(true);
+    writer.endFlag();
+    writer.startFlag("integer_flag", "allocation1", "negative", true);
+    writer.integerValue(-7);
+    writer.endFlag();
+    writer.startFlag("numeric_flag", "allocation1", "quarter", false);
+    writer.doubleValue(3.25);
+    writer.endFlag();
+    writer.startFlag("string_flag", "allocation2", "blue", true);
+    writer.stringValue("blue");
+    writer.endFlag();
+    writer.startFlag("bandit_flag", "training", "banner_bandit", true);
+    writer.stringValue("banner_bandit");
+    writer.endFlag("banner_bandit", "adidas", "v123", 0.75, 1.5);
+    writer.startFlag("json_flag", "allocation1", "a", true);
+    writer.jsonValue("{\"a\":1}");
+    writer.endFlag();
+    return writer.toBytes();
+  }
+
+  private static void assertSampleAssignments(PrecomputedAssignments assignments) {
+    assertEquals(0x8badf00ddeadbeefL, assignments.getConfigurationFingerprint());
+    assertEquals(42, assignments.getConfigurationVersion());
+    assertEquals(1700000000000L, assignments.getCreatedAtMillis());
+    assertEquals("subject1", assignments.getSubjectKey());
+    assertEquals(
+        new HashSet<>(
+            Arrays.asList(
+                "boolean_flag",
+                "integer_flag",
+                "numeric_flag",
+                "string_flag",
+                "bandit_flag",
+                "json_flag")),
+        assignments.getFlagKeys());
+
+    assertTrue(assignments.getBooleanAssignment("boolean_flag", false));
+    assertEquals(-7, assignments.getIntegerAssignment("integer_flag", 0));
+    assertEquals(3.25, assignments.getDoubleAssignment("numeric_flag", 0), 0.0);
+    assertEquals("blue", assignments.getStringAssignment("string_flag", "default"));
+    assertNull(assignments.getBanditAction("string_flag"));
+    assertEquals("banner_bandit", assignments.getStringAssignment("bandit_flag", "default"));
+    assertEquals("adidas", assignments.getBanditAction("bandit_flag"));
+    assertEquals("banner_bandit", assignments.getBanditKey("bandit_flag"));
+    assertEquals("v123", assignments.getBanditModelVersion("bandit_flag"));
+    assertEquals(0.75, assignments.getBanditActionProbability("bandit_flag"), 0.0);
+    assertEquals(1.5, assignments.getBanditOptimalityGap("bandit_flag"), 0.0);
+    assertNull(assignments.getBanditActionProbability("string_flag"));
+    assertNull(assignments.getBanditOptimalityGap("string_flag"));
+    assertEquals("training", assignments.getAllocationKey("bandit_flag"));
+    assertEquals("quarter", assignments.getVariationKey("numeric_flag"));
+    assertTrue(assignments.shouldLogAssignment("string_flag"));
+    assertFalse(assignments.shouldLogAssignment("numeric_flag"));
+    assertFalse(assignments.shouldLogAssignment("missing_flag"));
+    assertNull(assignments.getAllocationKey("missing_flag"));
+    assertEquals("{\"a\":1}", assignments.getJSONStringAssignment("json_flag", "{}"));
+    assertFalse(assignments.getBooleanAssignment("missing_flag", false));
+  }
+}